@@ -0,0 +1,46 @@
+package com.aimartt.framework.benchmark;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * <p>基准测试使用的典型查询条件，与页面查询表单提交的条件形式一致。</p>
+ */
+public final class BenchmarkConditions {
+
+	public static final String QUERY_SQL = "select o.id, o.order_no, o.user_name, o.status, o.amount, o.create_time "
+			+ "from benchmark_order o where o.remark is not null order by o.id desc";
+
+	/**
+	 * <p>创建查询条件。</p>
+	 * @return
+	 */
+	public static Map<String, Object> conditions() {
+		Map<String, Object> conditions = new LinkedHashMap<String, Object>();
+		conditions.put("EQ_status", "1");
+		conditions.put("LIKE_orderNo", "10000");
+		conditions.put("GTE_createTime", "2016-01-01");
+		conditions.put("LTE_createTime", "2016-12-31");
+		conditions.put("IN_userName", Arrays.asList("user1", "user2", "user3"));
+		conditions.put("GT_amount", "10.5");
+		conditions.put("NOTNULL_remark", "1");
+		conditions.put("EQ_id", "");
+		return conditions;
+	}
+
+	/**
+	 * <p>创建排序条件。</p>
+	 * @return
+	 */
+	public static Map<String, Boolean> orders() {
+		Map<String, Boolean> orders = new LinkedHashMap<String, Boolean>();
+		orders.put("createTime", false);
+		orders.put("orderNo", true);
+		return orders;
+	}
+
+	private BenchmarkConditions() {
+	}
+
+}
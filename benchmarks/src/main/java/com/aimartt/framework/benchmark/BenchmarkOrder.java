@@ -0,0 +1,119 @@
+package com.aimartt.framework.benchmark;
+
+import java.math.BigDecimal;
+import java.util.Date;
+
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import javax.persistence.Temporal;
+import javax.persistence.TemporalType;
+
+import com.aimartt.framework.excel.annotation.Export;
+
+/**
+ * <p>基准测试使用的订单实体，同时用于 JPA 查询和 Excel 导出。</p>
+ */
+@Entity
+@Table(name = "benchmark_order")
+public class BenchmarkOrder {
+
+	@Id
+	@GeneratedValue
+	@Export(name = "编号", order = 1)
+	private Long id;
+
+	@Export(name = "订单号", order = 2)
+	private String orderNo;
+
+	@Export(name = "用户名", order = 3)
+	private String userName;
+
+	@Export(name = "状态", order = 4, json = "状态{1:新建,2:已支付,3:已完成,4:已取消}")
+	private Byte status;
+
+	@Export(name = "金额", order = 5, pattern = "#,##0.00")
+	private BigDecimal amount;
+
+	@Temporal(TemporalType.TIMESTAMP)
+	@Export(name = "创建时间", order = 6)
+	private Date createTime;
+
+	@Export(name = "备注", order = 7)
+	private String remark;
+
+	/**
+	 * <p>创建测试数据。</p>
+	 * @param i 序号
+	 * @return
+	 */
+	public static BenchmarkOrder sample(long i) {
+		BenchmarkOrder order = new BenchmarkOrder();
+		order.setId(i);
+		order.setOrderNo("NO" + (100000000L + i));
+		order.setUserName("user" + (i % 1000));
+		order.setStatus((byte) (i % 4 + 1));
+		order.setAmount(BigDecimal.valueOf(i * 37 % 100000, 2));
+		order.setCreateTime(new Date(1451577600000L + i * 60000L));
+		order.setRemark((i % 10 == 0) ? "备注,含\"引号\"" : null);
+		return order;
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	public void setId(Long id) {
+		this.id = id;
+	}
+
+	public String getOrderNo() {
+		return orderNo;
+	}
+
+	public void setOrderNo(String orderNo) {
+		this.orderNo = orderNo;
+	}
+
+	public String getUserName() {
+		return userName;
+	}
+
+	public void setUserName(String userName) {
+		this.userName = userName;
+	}
+
+	public Byte getStatus() {
+		return status;
+	}
+
+	public void setStatus(Byte status) {
+		this.status = status;
+	}
+
+	public BigDecimal getAmount() {
+		return amount;
+	}
+
+	public void setAmount(BigDecimal amount) {
+		this.amount = amount;
+	}
+
+	public Date getCreateTime() {
+		return createTime;
+	}
+
+	public void setCreateTime(Date createTime) {
+		this.createTime = createTime;
+	}
+
+	public String getRemark() {
+		return remark;
+	}
+
+	public void setRemark(String remark) {
+		this.remark = remark;
+	}
+
+}
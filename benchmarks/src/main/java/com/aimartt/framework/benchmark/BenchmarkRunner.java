@@ -0,0 +1,37 @@
+package com.aimartt.framework.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * <p>基准测试入口，支持 JMH 的全部命令行参数，如：<code>java -jar benchmarks.jar Excel -p rows=10000</code>。</p>
+ * <p>未指定时默认运行全部基准测试，启用 GC 分析器输出内存分配速率（gc.alloc.rate.norm 即每次操作分配的字节数），
+ * 结果以 JSON 格式写入 target/jmh-result.json，可在不同版本间对比。</p>
+ */
+public class BenchmarkRunner {
+
+	public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+		CommandLineOptions commandLine = new CommandLineOptions(args);
+		ChainedOptionsBuilder builder = new OptionsBuilder().parent(commandLine);
+		if (commandLine.getIncludes().isEmpty()) {
+			builder.include("com\\.aimartt\\.framework\\..*Benchmark");
+		}
+		if (commandLine.getProfilers().isEmpty()) {
+			builder.addProfiler(GCProfiler.class);
+		}
+		if (!commandLine.getResultFormat().hasValue()) {
+			builder.resultFormat(ResultFormatType.JSON);
+		}
+		if (!commandLine.getResult().hasValue()) {
+			builder.result("target/jmh-result.json");
+		}
+		new Runner(builder.build()).run();
+	}
+
+}
@@ -0,0 +1,80 @@
+package com.aimartt.framework.excel;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.output.NullOutputStream;
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.aimartt.framework.benchmark.BenchmarkOrder;
+import com.aimartt.framework.jdbc.EntityCallbackHandler;
+
+/**
+ * <p>{@link ExcelEntityUtil} 导出基准测试。</p>
+ * <p>工作簿写入 {@link NullOutputStream}，测量的是生成工作簿和序列化的开销，不包含网络传输。</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = { "-Xms2g", "-Xmx2g" })
+public class ExcelExportBenchmark {
+
+	@Param({ "10000", "100000" })
+	private int rows;
+
+	@Param({ "xls", "xlsx", "sxlsx" })
+	private String format;
+
+	private List<BenchmarkOrder> orders;
+
+	@Setup
+	public void setup() {
+		orders = new ArrayList<BenchmarkOrder>(rows);
+		for (int i = 0; i < rows; i++) {
+			orders.add(BenchmarkOrder.sample(i));
+		}
+	}
+
+	@Benchmark
+	public void export() throws IOException {
+		ExcelEntityUtil.writeExcel(new NullOutputStream(), createWorkbook(), BenchmarkOrder.class,
+				new ExportDataProvider<BenchmarkOrder>() {
+					@Override
+					public void provide(EntityCallbackHandler<BenchmarkOrder> handler) {
+						for (int i = 0, size = orders.size(); i < size; i++) {
+							handler.processEntity(orders.get(i));
+						}
+					}
+				});
+	}
+
+	private ExcelWorkbook createWorkbook() {
+		if ("xls".equals(format)) {
+			return new ExcelWorkbook(new HSSFWorkbook(), "xls");
+		}
+		if ("xlsx".equals(format)) {
+			return new ExcelWorkbook(new XSSFWorkbook(), "xlsx");
+		}
+		SXSSFWorkbook workbook = new SXSSFWorkbook(ExcelEntityUtil.DEFAULT_ROW_ACCESS_WINDOW);
+		workbook.setCompressTempFiles(true);
+		return new ExcelWorkbook(workbook, "xlsx");
+	}
+
+}
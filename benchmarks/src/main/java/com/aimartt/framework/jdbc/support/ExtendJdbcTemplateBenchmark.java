@@ -0,0 +1,115 @@
+package com.aimartt.framework.jdbc.support;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.dbcp.BasicDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import com.aimartt.framework.benchmark.BenchmarkOrder;
+import com.aimartt.framework.jdbc.KeysetSlice;
+import com.aimartt.framework.jdbc.PagingStrategy;
+import com.aimartt.framework.jdbc.QueryOptions;
+import com.aimartt.framework.jdbc.dialect.H2Dialect;
+
+/**
+ * <p>{@link MysqlExtendJdbcTemplate} 分页查询基准测试。</p>
+ * <p>使用 {@link H2Dialect} 和进程内的 H2 数据库（MySQL 兼容模式）运行完整的查询路径：条件拼装、分页、统计和行映射。</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExtendJdbcTemplateBenchmark {
+
+	private static final String QUERY_SQL = "select o.id, o.order_no, o.user_name, o.status, o.amount, o.create_time "
+			+ "from benchmark_order o";
+
+	private static final int PAGE_SIZE = 10;
+
+	@Param({ "100000" })
+	private int rows;
+
+	@Param({ "0", "1000" })
+	private int page;
+
+	@Param({ "OFFSET", "DEFERRED_JOIN" })
+	private PagingStrategy pagingStrategy;
+
+	private BasicDataSource dataSource;
+	private MysqlExtendJdbcTemplate jdbcTemplate;
+	private Map<String, Object> conditions;
+	private Map<String, Boolean> orders;
+	private QueryOptions options;
+	private String token;
+
+	@Setup
+	public void setup() {
+		dataSource = new BasicDataSource();
+		dataSource.setDriverClassName("org.h2.Driver");
+		dataSource.setUrl("jdbc:h2:mem:benchmark;MODE=MySQL;DB_CLOSE_DELAY=-1");
+		dataSource.setUsername("sa");
+		jdbcTemplate = new MysqlExtendJdbcTemplate();
+		jdbcTemplate.setDataSource(dataSource);
+		jdbcTemplate.setDialect(new H2Dialect());
+		jdbcTemplate.execute("create table benchmark_order (id bigint primary key, order_no varchar(32), "
+				+ "user_name varchar(32), status tinyint, amount decimal(12, 2), create_time timestamp, "
+				+ "remark varchar(64))");
+		jdbcTemplate.execute("create index idx_benchmark_order_status on benchmark_order (status, create_time)");
+		List<BenchmarkOrder> samples = new ArrayList<BenchmarkOrder>(rows);
+		for (int i = 1; i <= rows; i++) {
+			samples.add(BenchmarkOrder.sample(i));
+		}
+		jdbcTemplate.batchInsert("benchmark_order", samples);
+
+		conditions = new LinkedHashMap<String, Object>();
+		conditions.put("EQ_status", 1);
+		orders = new LinkedHashMap<String, Boolean>();
+		orders.put("createTime", false);
+		orders.put("id", false);
+		options = new QueryOptions();
+		options.setPagingStrategy(pagingStrategy);
+		// 键集分页定位到与偏移分页相同的位置
+		for (int skipped = 0; skipped < page * PAGE_SIZE; skipped += 1000) {
+			token = jdbcTemplate.queryForKeysetPage(BenchmarkOrder.class, QUERY_SQL, conditions, orders, 1000, token)
+					.getNextToken();
+		}
+	}
+
+	@TearDown
+	public void tearDown() throws SQLException {
+		jdbcTemplate.execute("drop table benchmark_order");
+		dataSource.close();
+	}
+
+	@Benchmark
+	public Page<BenchmarkOrder> queryForPage() {
+		return jdbcTemplate.queryForPage(BenchmarkOrder.class, QUERY_SQL, conditions, new PageRequest(page, PAGE_SIZE),
+				orders, options);
+	}
+
+	@Benchmark
+	public KeysetSlice<BenchmarkOrder> queryForKeysetPage() {
+		return jdbcTemplate.queryForKeysetPage(BenchmarkOrder.class, QUERY_SQL, conditions, orders, PAGE_SIZE, token);
+	}
+
+}
@@ -0,0 +1,49 @@
+package com.aimartt.framework.jdbc.support;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.aimartt.framework.benchmark.BenchmarkConditions;
+
+/**
+ * <p>{@link QueryCondition} 动态 SQL 拼装基准测试。</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QueryConditionBenchmark {
+
+	private Map<String, Object> conditions;
+	private Map<String, Boolean> orders;
+
+	@Setup
+	public void setup() {
+		conditions = BenchmarkConditions.conditions();
+		orders = BenchmarkConditions.orders();
+	}
+
+	@Benchmark
+	public QueryCondition createResultQuery() {
+		return QueryCondition.createResultQuery(BenchmarkConditions.QUERY_SQL, conditions, orders);
+	}
+
+	@Benchmark
+	public QueryCondition createCountQuery() {
+		return QueryCondition.createCountQuery(BenchmarkConditions.QUERY_SQL, conditions);
+	}
+
+}
@@ -0,0 +1,48 @@
+package com.aimartt.framework.jdbc.support;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.aimartt.framework.benchmark.BenchmarkConditions;
+
+/**
+ * <p>{@link SearchFilter} 条件解析基准测试。</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SearchFilterBenchmark {
+
+	private Map<String, Object> conditions;
+
+	@Setup
+	public void setup() {
+		conditions = BenchmarkConditions.conditions();
+	}
+
+	@Benchmark
+	public List<SearchFilter> parse() {
+		return SearchFilter.parse(conditions);
+	}
+
+	@Benchmark
+	public String coverdColumnName() {
+		return SearchFilter.coverdColumnName("order.createTime");
+	}
+
+}
@@ -0,0 +1,80 @@
+package com.aimartt.framework.jpa;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Persistence;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.aimartt.framework.benchmark.BenchmarkConditions;
+import com.aimartt.framework.benchmark.BenchmarkOrder;
+import com.aimartt.framework.jdbc.support.SearchFilter;
+
+/**
+ * <p>{@link DynamicSpecifications} 基准测试，使用 H2 内存数据库上的 Hibernate。</p>
+ * <p>{@link DynamicSpecifications#bySearchFilter} 会就地转换条件值，所以每次操作都重新解析条件。
+ * 只测量条件构建和查询编译，不执行查询。</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DynamicSpecificationsBenchmark {
+
+	private EntityManagerFactory entityManagerFactory;
+	private EntityManager entityManager;
+	private Map<String, Object> conditions;
+
+	@Setup
+	public void setup() {
+		entityManagerFactory = Persistence.createEntityManagerFactory("benchmark");
+		entityManager = entityManagerFactory.createEntityManager();
+		conditions = BenchmarkConditions.conditions();
+	}
+
+	@TearDown
+	public void tearDown() {
+		entityManager.close();
+		entityManagerFactory.close();
+	}
+
+	@Benchmark
+	public Predicate toPredicate() {
+		CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+		CriteriaQuery<BenchmarkOrder> query = builder.createQuery(BenchmarkOrder.class);
+		Root<BenchmarkOrder> root = query.from(BenchmarkOrder.class);
+		return DynamicSpecifications.bySearchFilter(SearchFilter.parse(conditions), BenchmarkOrder.class)
+				.toPredicate(root, query, builder);
+	}
+
+	@Benchmark
+	public TypedQuery<BenchmarkOrder> createQuery() {
+		CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+		CriteriaQuery<BenchmarkOrder> query = builder.createQuery(BenchmarkOrder.class);
+		Root<BenchmarkOrder> root = query.from(BenchmarkOrder.class);
+		query.where(DynamicSpecifications.bySearchFilter(SearchFilter.parse(conditions), BenchmarkOrder.class)
+				.toPredicate(root, query, builder));
+		return entityManager.createQuery(query);
+	}
+
+}
@@ -0,0 +1,39 @@
+package com.aimartt.framework.jpa;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * <p>{@link StringToDateConverter} 基准测试，分别测量首个格式即匹配和最后一个格式才匹配的情况。</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StringToDateConverterBenchmark {
+
+	private final StringToDateConverter converter = new StringToDateConverter();
+
+	@Benchmark
+	public Date convertDateTime() {
+		return converter.convert("2016-03-01 12:30:45");
+	}
+
+	@Benchmark
+	public Date convertSlashDate() {
+		return converter.convert("2016/03/01");
+	}
+
+}
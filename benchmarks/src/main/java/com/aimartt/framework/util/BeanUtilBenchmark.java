@@ -0,0 +1,36 @@
+package com.aimartt.framework.util;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.aimartt.framework.benchmark.BenchmarkOrder;
+
+/**
+ * <p>{@link BeanUtil#transBean2Map(Object)} 基准测试。</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BeanUtilBenchmark {
+
+	private final BenchmarkOrder order = BenchmarkOrder.sample(10);
+
+	@Benchmark
+	public Map<String, Object> transBean2Map() {
+		return BeanUtil.transBean2Map(order);
+	}
+
+}
@@ -0,0 +1,211 @@
+package com.aimartt.framework.excel;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.math.BigDecimal;
+import java.nio.charset.Charset;
+import java.text.DecimalFormat;
+import java.text.Format;
+import java.util.Date;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.time.FastDateFormat;
+
+import com.aimartt.framework.exception.BusinessException;
+import com.aimartt.framework.jdbc.EntityCallbackHandler;
+
+/**
+ * <p>CSV/TSV 导出工具类。</p>
+ * <p>与 {@link ExcelEntityUtil} 共用 {@link com.aimartt.framework.excel.annotation.Export} 注解（列名、顺序、json 字典、格式），
+ * 逐行直接写入响应输出流，内存占用与导出行数无关。</p>
+ */
+public class CsvEntityUtil {
+
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+	private static final byte[] UTF_8_BOM = { (byte) 0xEF, (byte) 0xBB, (byte) 0xBF };
+
+	/**
+	 * <p>导出 csv 文件。</p>
+	 * @param response
+	 * @param fileName
+	 * @param exportData
+	 */
+	public static <T> void doExportForCsv(HttpServletResponse response, String fileName, List<T> exportData) {
+		doExport(response, fileName, exportData, ',', false);
+	}
+
+	/**
+	 * <p>导出 csv 文件。</p>
+	 * @param response
+	 * @param fileName
+	 * @param exportData
+	 * @param gzip 是否以 gzip 压缩传输
+	 */
+	public static <T> void doExportForCsv(HttpServletResponse response, String fileName, List<T> exportData,
+			boolean gzip) {
+		doExport(response, fileName, exportData, ',', gzip);
+	}
+
+	/**
+	 * <p>导出 csv 文件，导出数据由提供者逐条提供。</p>
+	 * @param response
+	 * @param fileName
+	 * @param entityClass 导出实体类型
+	 * @param provider 导出数据提供者
+	 * @param gzip 是否以 gzip 压缩传输
+	 */
+	public static <T> void doExportForCsv(HttpServletResponse response, String fileName, Class<T> entityClass,
+			ExportDataProvider<T> provider, boolean gzip) {
+		doExport(response, fileName, entityClass, provider, ',', gzip);
+	}
+
+	/**
+	 * <p>导出 tsv 文件。</p>
+	 * @param response
+	 * @param fileName
+	 * @param exportData
+	 */
+	public static <T> void doExportForTsv(HttpServletResponse response, String fileName, List<T> exportData) {
+		doExport(response, fileName, exportData, '\t', false);
+	}
+
+	/**
+	 * <p>导出 tsv 文件。</p>
+	 * @param response
+	 * @param fileName
+	 * @param exportData
+	 * @param gzip 是否以 gzip 压缩传输
+	 */
+	public static <T> void doExportForTsv(HttpServletResponse response, String fileName, List<T> exportData,
+			boolean gzip) {
+		doExport(response, fileName, exportData, '\t', gzip);
+	}
+
+	/**
+	 * <p>导出 tsv 文件，导出数据由提供者逐条提供。</p>
+	 * @param response
+	 * @param fileName
+	 * @param entityClass 导出实体类型
+	 * @param provider 导出数据提供者
+	 * @param gzip 是否以 gzip 压缩传输
+	 */
+	public static <T> void doExportForTsv(HttpServletResponse response, String fileName, Class<T> entityClass,
+			ExportDataProvider<T> provider, boolean gzip) {
+		doExport(response, fileName, entityClass, provider, '\t', gzip);
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <T> void doExport(HttpServletResponse response, String fileName, final List<T> exportData,
+			char delimiter, boolean gzip) {
+		Class<T> entityClass = null;
+		if (exportData != null && !exportData.isEmpty()) {
+			entityClass = (Class<T>) exportData.get(0).getClass();
+		}
+		doExport(response, fileName, entityClass, new ExportDataProvider<T>() {
+			@Override
+			public void provide(EntityCallbackHandler<T> handler) {
+				for (int i = 0, size = exportData.size(); i < size; i++) {
+					handler.processEntity(exportData.get(i));
+				}
+			}
+		}, delimiter, gzip);
+	}
+
+	private static <T> void doExport(HttpServletResponse response, String fileName, Class<T> entityClass,
+			ExportDataProvider<T> provider, char delimiter, boolean gzip) {
+		boolean csv = (delimiter == ',');
+		OutputStream output = null;
+		try {
+			output = response.getOutputStream();
+			response.reset();
+			response.setContentType(csv ? "text/csv;charset=UTF-8" : "text/tab-separated-values;charset=UTF-8");
+			response.setHeader("Content-Disposition",
+					"attachment; filename=" + ExcelEntityUtil.attachmentFileName(fileName, csv ? "csv" : "tsv"));
+			if (gzip) {
+				response.setHeader("Content-Encoding", "gzip");
+				output = new GZIPOutputStream(output, 8192);
+			}
+			write(output, entityClass, provider, delimiter);
+			if (output instanceof GZIPOutputStream) {
+				((GZIPOutputStream) output).finish();
+			}
+		} catch (IOException e) {
+			throw new BusinessException(e.getMessage(), e);
+		} finally {
+			IOUtils.closeQuietly(output);
+		}
+	}
+
+	/**
+	 * <p>将导出数据以 UTF-8（含 BOM）写入输出流，输出流由调用方关闭。</p>
+	 * @param output
+	 * @param entityClass 导出实体类型，为 null 时只写入 BOM
+	 * @param provider 导出数据提供者
+	 * @param delimiter 字段分隔符，逗号按 CSV 规则转义，其它按 TSV 规则转义
+	 * @throws IOException
+	 */
+	static <T> void write(OutputStream output, Class<T> entityClass, ExportDataProvider<T> provider, char delimiter)
+			throws IOException {
+		output.write(UTF_8_BOM);
+		DelimitedWriter writer = new DelimitedWriter(new OutputStreamWriter(output, UTF_8), delimiter, delimiter == ',');
+		if (entityClass != null) {
+			writeRecords(writer, ExportPlan.of(entityClass), provider);
+		}
+		writer.flush();
+	}
+
+	private static <T> void writeRecords(final DelimitedWriter writer, ExportPlan plan, ExportDataProvider<T> provider)
+			throws IOException {
+		final List<ExportPlan.Column> columns = plan.columns;
+		final Format[] formats = new Format[columns.size()];
+		for (int i = 0; i < formats.length; i++) {
+			ExportPlan.Column column = columns.get(i);
+			writer.writeField(column.name);
+			if (column.pattern == null) {
+				continue;
+			}
+			if (Date.class.isAssignableFrom(column.type)) {
+				formats[i] = FastDateFormat.getInstance(column.pattern);
+			} else if (Number.class.isAssignableFrom(column.type)) {
+				// DecimalFormat 非线程安全，每次导出单独创建
+				formats[i] = new DecimalFormat(column.pattern);
+			}
+		}
+		writer.endRecord();
+		provider.provide(new EntityCallbackHandler<T>() {
+			@Override
+			public void processEntity(T entity) {
+				try {
+					for (int i = 0, size = columns.size(); i < size; i++) {
+						writer.writeField(toText(columns.get(i).getValue(entity), formats[i]));
+					}
+					writer.endRecord();
+				} catch (IOException e) {
+					throw new BusinessException(e.getMessage(), e);
+				}
+			}
+		});
+	}
+
+	private static String toText(Object value, Format format) {
+		if (value == null) {
+			return null;
+		} else if (format != null && (value instanceof Date || value instanceof Number)) {
+			return format.format(value);
+		} else if ((value instanceof Double || value instanceof Float) && !Double.isNaN(((Number) value).doubleValue())
+				&& !Double.isInfinite(((Number) value).doubleValue())) {
+			// 避免科学计数法
+			return new BigDecimal(value.toString()).toPlainString();
+		}
+		return value.toString();
+	}
+
+	private CsvEntityUtil() {
+	}
+
+}
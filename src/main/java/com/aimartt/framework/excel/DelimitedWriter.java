@@ -0,0 +1,154 @@
+package com.aimartt.framework.excel;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * <p>CSV/TSV 记录写入器。</p>
+ * <p>字段在写入可复用的字符缓冲区的同时完成转义：CSV 仅在遇到分隔符、引号或换行时才为字段补上引号，
+ * TSV 将字段中的制表符和换行替换为空格。缓冲区写满后整体交给底层 {@link Writer} 编码输出。</p>
+ */
+final class DelimitedWriter implements Flushable, Closeable {
+
+	private static final char QUOTE = '"';
+
+	private final Writer out;
+	private final char delimiter;
+	private final boolean quoting;
+	private final char[] buf = new char[8192];
+	private int pos = 0;
+	private boolean firstField = true;
+
+	/**
+	 * @param out 底层输出
+	 * @param delimiter 字段分隔符
+	 * @param quoting true: 按 CSV 规则加引号转义; false: 按 TSV 规则替换特殊字符
+	 */
+	DelimitedWriter(Writer out, char delimiter, boolean quoting) {
+		this.out = out;
+		this.delimiter = delimiter;
+		this.quoting = quoting;
+	}
+
+	/**
+	 * <p>写入一个字段，null 写为空字段。</p>
+	 * @param value
+	 * @throws IOException
+	 */
+	public void writeField(String value) throws IOException {
+		if (!firstField) {
+			put(delimiter);
+		}
+		firstField = false;
+		if (value == null || value.isEmpty()) {
+			return;
+		}
+		int length = value.length();
+		// 最坏情况下每个字符都需要转义，另加一对引号
+		int worst = 2 * length + 2;
+		if (worst > buf.length) {
+			writeLongField(value);
+			return;
+		}
+		if (pos + worst > buf.length) {
+			flushBuffer();
+		}
+		int start = pos;
+		boolean quoted = false;
+		for (int i = 0; i < length; i++) {
+			char c = value.charAt(i);
+			if (isSpecial(c)) {
+				if (!quoting) {
+					c = ' ';
+				} else if (!quoted) {
+					// 首次遇到特殊字符，为已写入部分补上起始引号
+					System.arraycopy(buf, start, buf, start + 1, pos - start);
+					buf[start] = QUOTE;
+					pos++;
+					quoted = true;
+				}
+				if (quoting && c == QUOTE) {
+					buf[pos++] = QUOTE;
+				}
+			}
+			buf[pos++] = c;
+		}
+		if (quoted) {
+			buf[pos++] = QUOTE;
+		}
+	}
+
+	/**
+	 * <p>结束当前记录。</p>
+	 * @throws IOException
+	 */
+	public void endRecord() throws IOException {
+		put('\r');
+		put('\n');
+		firstField = true;
+	}
+
+	private void writeLongField(String value) throws IOException {
+		int length = value.length();
+		boolean quoted = false;
+		if (quoting) {
+			for (int i = 0; i < length && !quoted; i++) {
+				quoted = isSpecial(value.charAt(i));
+			}
+		}
+		if (quoted) {
+			put(QUOTE);
+		}
+		for (int i = 0; i < length; i++) {
+			char c = value.charAt(i);
+			if (quoting) {
+				if (c == QUOTE) {
+					put(QUOTE);
+				}
+			} else if (isSpecial(c)) {
+				c = ' ';
+			}
+			put(c);
+		}
+		if (quoted) {
+			put(QUOTE);
+		}
+	}
+
+	private boolean isSpecial(char c) {
+		if (c == delimiter || c == '\r' || c == '\n') {
+			return true;
+		}
+		return quoting ? (c == QUOTE) : (c == '\t');
+	}
+
+	private void put(char c) throws IOException {
+		if (pos == buf.length) {
+			flushBuffer();
+		}
+		buf[pos++] = c;
+	}
+
+	private void flushBuffer() throws IOException {
+		out.write(buf, 0, pos);
+		pos = 0;
+	}
+
+	@Override
+	public void flush() throws IOException {
+		flushBuffer();
+		out.flush();
+	}
+
+	@Override
+	public void close() throws IOException {
+		try {
+			flushBuffer();
+		} finally {
+			out.close();
+		}
+	}
+
+}
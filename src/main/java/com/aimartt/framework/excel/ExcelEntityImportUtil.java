@@ -0,0 +1,418 @@
+package com.aimartt.framework.excel;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.xml.parsers.SAXParserFactory;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.poi.hssf.eventusermodel.FormatTrackingHSSFListener;
+import org.apache.poi.hssf.eventusermodel.HSSFEventFactory;
+import org.apache.poi.hssf.eventusermodel.HSSFListener;
+import org.apache.poi.hssf.eventusermodel.HSSFRequest;
+import org.apache.poi.hssf.eventusermodel.MissingRecordAwareHSSFListener;
+import org.apache.poi.hssf.eventusermodel.dummyrecord.LastCellOfRowDummyRecord;
+import org.apache.poi.hssf.record.BOFRecord;
+import org.apache.poi.hssf.record.BoolErrRecord;
+import org.apache.poi.hssf.record.FormulaRecord;
+import org.apache.poi.hssf.record.LabelRecord;
+import org.apache.poi.hssf.record.LabelSSTRecord;
+import org.apache.poi.hssf.record.NumberRecord;
+import org.apache.poi.hssf.record.Record;
+import org.apache.poi.hssf.record.SSTRecord;
+import org.apache.poi.hssf.record.StringRecord;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.poifs.filesystem.POIFSFileSystem;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler.SheetContentsHandler;
+import org.springframework.beans.BeanUtils;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.core.convert.support.DefaultConversionService;
+import org.springframework.jdbc.core.JdbcOperations;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.xml.sax.InputSource;
+import org.xml.sax.XMLReader;
+
+import com.aimartt.framework.exception.BusinessException;
+import com.aimartt.framework.jpa.domain.AbstractEntity;
+import com.aimartt.framework.jpa.service.EntityJpaService;
+
+/**
+ * <p>Excel 导入工具类。</p>
+ * <p>基于 POI 事件模型逐行解析（xlsx 使用 SAX 解析工作表，xls 使用 HSSF 事件 API），按 {@link com.aimartt.framework.excel.annotation.Export#name()}
+ * 匹配表头、按 json 字典反查字典值，每读满一批实体即交给 {@link ImportBatchHandler}，内存占用与文件大小无关。</p>
+ * <p>每个工作表的第一行为表头，与 {@link ExcelEntityUtil} 导出的文件格式一致。数值和日期单元格读取原始值（见 {@link RawValueFormatter}），
+ * 不受导出时设置的单元格格式影响。</p>
+ */
+public class ExcelEntityImportUtil {
+
+	/** 默认批量大小 */
+	public static final int DEFAULT_BATCH_SIZE = 500;
+
+	/** 日期由 {@link ExportPlan.Column} 解析，不经过共享格式对象的字符串日期转换器 */
+	private static final ConversionService CONVERSION_SERVICE = new DefaultConversionService();
+
+	/**
+	 * <p>导入 xlsx Excel 文件。</p>
+	 * @param file Excel 文件
+	 * @param entityClass 导入实体类型
+	 * @param batchSize 批量大小
+	 * @param handler 批处理器
+	 * @return 导入的实体数量
+	 */
+	public static <T> long doImportForXlsx(File file, Class<T> entityClass, int batchSize, ImportBatchHandler<T> handler) {
+		EntityRowCollector<T> collector = new EntityRowCollector<T>(entityClass, batchSize, handler);
+		OPCPackage pkg = null;
+		try {
+			pkg = OPCPackage.open(file.getPath(), PackageAccess.READ);
+			XSSFReader reader = new XSSFReader(pkg);
+			ReadOnlySharedStringsTable strings = new ReadOnlySharedStringsTable(pkg);
+			XSSFSheetXMLHandler sheetHandler = new XSSFSheetXMLHandler(reader.getStylesTable(), strings,
+					new XlsxContentsHandler(collector), new RawValueFormatter(), false);
+			XMLReader parser = SAXParserFactory.newInstance().newSAXParser().getXMLReader();
+			parser.setContentHandler(sheetHandler);
+			XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) reader.getSheetsData();
+			while (sheets.hasNext()) {
+				InputStream sheet = sheets.next();
+				try {
+					collector.startSheet();
+					parser.parse(new InputSource(sheet));
+				} finally {
+					IOUtils.closeQuietly(sheet);
+				}
+			}
+			return collector.finish();
+		} catch (BusinessException e) {
+			throw e;
+		} catch (Exception e) {
+			throw new BusinessException(e.getMessage(), e);
+		} finally {
+			if (pkg != null) {
+				pkg.revert();
+			}
+		}
+	}
+
+	/**
+	 * <p>导入 xlsx Excel 文件，输入流先写入临时文件再解析，避免整个压缩包解压到内存中。</p>
+	 * @param input Excel 文件输入流
+	 * @param entityClass 导入实体类型
+	 * @param batchSize 批量大小
+	 * @param handler 批处理器
+	 * @return 导入的实体数量
+	 */
+	public static <T> long doImportForXlsx(InputStream input, Class<T> entityClass, int batchSize,
+			ImportBatchHandler<T> handler) {
+		File file = null;
+		try {
+			file = File.createTempFile("import", ".xlsx");
+			FileUtils.copyInputStreamToFile(input, file);
+			return doImportForXlsx(file, entityClass, batchSize, handler);
+		} catch (IOException e) {
+			throw new BusinessException(e.getMessage(), e);
+		} finally {
+			FileUtils.deleteQuietly(file);
+		}
+	}
+
+	/**
+	 * <p>导入 xls Excel 文件。</p>
+	 * @param input Excel 文件输入流
+	 * @param entityClass 导入实体类型
+	 * @param batchSize 批量大小
+	 * @param handler 批处理器
+	 * @return 导入的实体数量
+	 */
+	public static <T> long doImportForXls(InputStream input, Class<T> entityClass, int batchSize,
+			ImportBatchHandler<T> handler) {
+		EntityRowCollector<T> collector = new EntityRowCollector<T>(entityClass, batchSize, handler);
+		try {
+			XlsListener listener = new XlsListener(collector);
+			HSSFRequest request = new HSSFRequest();
+			request.addListenerForAllRecords(listener.formatListener);
+			new HSSFEventFactory().processWorkbookEvents(request, new POIFSFileSystem(input));
+			listener.endRow();
+			return collector.finish();
+		} catch (IOException e) {
+			throw new BusinessException(e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * <p>通过实体服务批量保存导入实体。</p>
+	 * @param service 实体服务
+	 * @return
+	 */
+	public static <T extends AbstractEntity<ID>, ID extends Serializable> ImportBatchHandler<T> jpaBatchHandler(
+			final EntityJpaService<T, ID> service) {
+		return new ImportBatchHandler<T>() {
+			@Override
+			public void handle(List<T> batch) {
+				service.save(batch);
+			}
+		};
+	}
+
+	/**
+	 * <p>通过 JDBC 批量更新保存导入实体。</p>
+	 * @param jdbcOperations
+	 * @param sql 插入语句，如 INSERT INTO 表名 (字段1,...字段n) VALUES (?,...?)
+	 * @param setter 参数设置
+	 * @return
+	 */
+	public static <T> ImportBatchHandler<T> jdbcBatchHandler(final JdbcOperations jdbcOperations, final String sql,
+			final ParameterizedPreparedStatementSetter<T> setter) {
+		return new ImportBatchHandler<T>() {
+			@Override
+			public void handle(List<T> batch) {
+				jdbcOperations.batchUpdate(sql, batch, batch.size(), setter);
+			}
+		};
+	}
+
+	private ExcelEntityImportUtil() {
+	}
+
+	/**
+	 * <p>将工作表的行组装为实体，并按批交给处理器。每个工作表的第一行为表头。</p>
+	 */
+	private static class EntityRowCollector<T> {
+		private final Class<T> entityClass;
+		private final Map<String, ExportPlan.Column> columnsByName = new HashMap<String, ExportPlan.Column>();
+		private final int batchSize;
+		private final ImportBatchHandler<T> handler;
+		private ExportPlan.Column[] columns;
+		private List<ExportPlan.Column> headerColumns;
+		private int rowNum;
+		private T entity;
+		private List<T> batch;
+		private long count = 0;
+
+		public EntityRowCollector(Class<T> entityClass, int batchSize, ImportBatchHandler<T> handler) {
+			this.entityClass = entityClass;
+			this.batchSize = (batchSize < 1) ? DEFAULT_BATCH_SIZE : batchSize;
+			this.handler = handler;
+			this.batch = new ArrayList<T>(this.batchSize);
+			for (ExportPlan.Column column : ExportPlan.of(entityClass).columns) {
+				if (column.isWritable()) {
+					columnsByName.put(column.name, column);
+				}
+			}
+		}
+
+		public void startSheet() {
+			columns = null;
+		}
+
+		public void startRow(int rowNum) {
+			this.rowNum = rowNum;
+			this.entity = null;
+			this.headerColumns = (columns == null) ? new ArrayList<ExportPlan.Column>() : null;
+		}
+
+		public void cell(int col, String text) {
+			if (StringUtils.isEmpty(text)) {
+				return;
+			}
+			if (headerColumns != null) {
+				while (headerColumns.size() <= col) {
+					headerColumns.add(null);
+				}
+				headerColumns.set(col, columnsByName.get(text.trim()));
+				return;
+			}
+			if (col >= columns.length || columns[col] == null) {
+				return;
+			}
+			if (entity == null) {
+				entity = BeanUtils.instantiate(entityClass);
+			}
+			try {
+				columns[col].setText(entity, text, CONVERSION_SERVICE);
+			} catch (RuntimeException e) {
+				throw new BusinessException(String.format("第%d行[%s]数据格式错误!", rowNum + 1, columns[col].name), e);
+			}
+		}
+
+		public void endRow() {
+			if (headerColumns != null) {
+				if (!headerColumns.isEmpty()) {
+					columns = headerColumns.toArray(new ExportPlan.Column[headerColumns.size()]);
+				}
+				headerColumns = null;
+			} else if (entity != null) {
+				batch.add(entity);
+				entity = null;
+				count++;
+				if (batch.size() >= batchSize) {
+					flush();
+				}
+			}
+		}
+
+		public long finish() {
+			flush();
+			return count;
+		}
+
+		private void flush() {
+			if (!batch.isEmpty()) {
+				handler.handle(batch);
+				batch = new ArrayList<T>(batchSize);
+			}
+		}
+	}
+
+	/**
+	 * <p>xlsx 工作表内容处理器。</p>
+	 */
+	private static class XlsxContentsHandler implements SheetContentsHandler {
+		private final EntityRowCollector<?> collector;
+
+		public XlsxContentsHandler(EntityRowCollector<?> collector) {
+			this.collector = collector;
+		}
+
+		@Override
+		public void startRow(int rowNum) {
+			collector.startRow(rowNum);
+		}
+
+		@Override
+		public void endRow() {
+			collector.endRow();
+		}
+
+		@Override
+		public void cell(String cellReference, String formattedValue) {
+			collector.cell(new CellReference(cellReference).getCol(), formattedValue);
+		}
+
+		@Override
+		public void headerFooter(String text, boolean isHeader, String tagName) {
+		}
+	}
+
+	/**
+	 * <p>xls 记录监听器。</p>
+	 */
+	private static class XlsListener implements HSSFListener {
+		private final EntityRowCollector<?> collector;
+		private final FormatTrackingHSSFListener formatListener;
+		private final RawValueFormatter formatter = new RawValueFormatter();
+		private SSTRecord sstRecord;
+		private int currentRow = -1;
+		private boolean rowStarted = false;
+		private boolean nextStringRecord = false;
+		private int nextRow;
+		private int nextColumn;
+
+		public XlsListener(EntityRowCollector<?> collector) {
+			this.collector = collector;
+			this.formatListener = new FormatTrackingHSSFListener(new MissingRecordAwareHSSFListener(this));
+		}
+
+		@Override
+		public void processRecord(Record record) {
+			int row = -1;
+			int column = -1;
+			String text = null;
+			switch (record.getSid()) {
+				case BOFRecord.sid:
+					if (((BOFRecord) record).getType() == BOFRecord.TYPE_WORKSHEET) {
+						endRow();
+						currentRow = -1;
+						collector.startSheet();
+					}
+					break;
+				case SSTRecord.sid:
+					sstRecord = (SSTRecord) record;
+					break;
+				case LabelSSTRecord.sid:
+					LabelSSTRecord lsr = (LabelSSTRecord) record;
+					row = lsr.getRow();
+					column = lsr.getColumn();
+					text = sstRecord.getString(lsr.getSSTIndex()).toString();
+					break;
+				case LabelRecord.sid:
+					LabelRecord lr = (LabelRecord) record;
+					row = lr.getRow();
+					column = lr.getColumn();
+					text = lr.getValue();
+					break;
+				case NumberRecord.sid:
+					NumberRecord nr = (NumberRecord) record;
+					row = nr.getRow();
+					column = nr.getColumn();
+					text = formatter.formatRawCellContents(nr.getValue(), formatListener.getFormatIndex(nr),
+							formatListener.getFormatString(nr));
+					break;
+				case BoolErrRecord.sid:
+					BoolErrRecord ber = (BoolErrRecord) record;
+					if (ber.isBoolean()) {
+						row = ber.getRow();
+						column = ber.getColumn();
+						text = String.valueOf(ber.getBooleanValue());
+					}
+					break;
+				case FormulaRecord.sid:
+					FormulaRecord fr = (FormulaRecord) record;
+					if (fr.hasCachedResultString()) {
+						// 字符串结果在随后的 StringRecord 中
+						nextStringRecord = true;
+						nextRow = fr.getRow();
+						nextColumn = fr.getColumn();
+					} else {
+						row = fr.getRow();
+						column = fr.getColumn();
+						text = formatter.formatRawCellContents(fr.getValue(), formatListener.getFormatIndex(fr),
+								formatListener.getFormatString(fr));
+					}
+					break;
+				case StringRecord.sid:
+					if (nextStringRecord) {
+						nextStringRecord = false;
+						row = nextRow;
+						column = nextColumn;
+						text = ((StringRecord) record).getString();
+					}
+					break;
+				default:
+					break;
+			}
+			if (text != null) {
+				if (!rowStarted || row != currentRow) {
+					endRow();
+					currentRow = row;
+					rowStarted = true;
+					collector.startRow(row);
+				}
+				collector.cell(column, text);
+			}
+			if (record instanceof LastCellOfRowDummyRecord
+					&& ((LastCellOfRowDummyRecord) record).getRow() == currentRow) {
+				endRow();
+			}
+		}
+
+		private void endRow() {
+			if (rowStarted) {
+				rowStarted = false;
+				collector.endRow();
+			}
+		}
+	}
+
+}
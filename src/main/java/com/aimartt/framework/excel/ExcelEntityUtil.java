@@ -1,45 +1,49 @@
 package com.aimartt.framework.excel;
 
-import java.beans.PropertyDescriptor;
+import java.io.IOException;
 import java.io.OutputStream;
-import java.lang.reflect.Field;
-import java.lang.reflect.Method;
-import java.text.DateFormat;
-import java.text.SimpleDateFormat;
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
-import java.util.Date;
-import java.util.LinkedHashMap;
+import java.io.UnsupportedEncodingException;
+import java.util.Iterator;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
 
 import javax.servlet.http.HttpServletResponse;
 
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
-import org.apache.poi.hssf.usermodel.HSSFCell;
 import org.apache.poi.hssf.usermodel.HSSFWorkbook;
 import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
 import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
 import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
-import org.springframework.beans.BeanUtils;
 
-import com.aimartt.framework.excel.annotation.Export;
 import com.aimartt.framework.exception.BusinessException;
-import com.aimartt.framework.util.DateUtil;
+import com.aimartt.framework.jdbc.EntityCallbackHandler;
+import com.aimartt.framework.jdbc.ExtendJdbcTemplate;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 /**
  * <p>Excel 导出工具类。</p>
  */
 public class ExcelEntityUtil {
 	
-	private static final DateFormat DATE_FORMAT = new SimpleDateFormat(DateUtil.PATTEN_OF_DATETIME_DASH);
-	private static final Object[] EMPTY = new Object[0];
+	/** 流式导出时默认保留在内存中的行数 */
+	public static final int DEFAULT_ROW_ACCESS_WINDOW = SXSSFWorkbook.DEFAULT_WINDOW_SIZE;
+
+	private static final int PROCESSORS = Runtime.getRuntime().availableProcessors();
+
+	/** 并行导出时每个取值转换任务的行数，与工作表行数无关 */
+	static final int PARALLEL_CHUNK_SIZE = 4096;
 
 	/**
 	 * <p>导出 xls Excel 文件。</p>
@@ -48,7 +52,7 @@ public class ExcelEntityUtil {
 	 * @param exportData
 	 */
 	public static <T> void doExportForXls(HttpServletResponse response, String fileName, List<T> exportData) {
-		doExportExcel(response, fileName, new ExcelWorkbook(new HSSFWorkbook(), "xls"), exportData);
+		doExportExcel(response, fileName, new ExcelWorkbook(new HSSFWorkbook(), "xls"), listFiller(exportData));
 	}
 
 	/**
@@ -58,74 +62,286 @@ public class ExcelEntityUtil {
 	 * @param exportData
 	 */
 	public static <T> void doExportForXlsx(HttpServletResponse response, String fileName, List<T> exportData) {
-		doExportExcel(response, fileName, new ExcelWorkbook(new XSSFWorkbook(), "xlsx"), exportData);
+		doExportExcel(response, fileName, new ExcelWorkbook(new XSSFWorkbook(), "xlsx"), listFiller(exportData));
+	}
+
+	/**
+	 * <p>以流式方式导出 xlsx Excel 文件，内存中仅保留 {@link #DEFAULT_ROW_ACCESS_WINDOW} 行。</p>
+	 * @param response
+	 * @param fileName
+	 * @param exportData
+	 */
+	public static <T> void doExportForSxlsx(HttpServletResponse response, String fileName, List<T> exportData) {
+		doExportForSxlsx(response, fileName, exportData, DEFAULT_ROW_ACCESS_WINDOW);
+	}
+
+	/**
+	 * <p>以流式方式导出 xlsx Excel 文件。</p>
+	 * <p>超出窗口的行会被压缩写入临时文件，导出结束后删除，堆内存占用不随导出行数增长。</p>
+	 * @param response
+	 * @param fileName
+	 * @param exportData
+	 * @param rowAccessWindowSize 内存中保留的行数
+	 */
+	public static <T> void doExportForSxlsx(HttpServletResponse response, String fileName, List<T> exportData,
+			int rowAccessWindowSize) {
+		SXSSFWorkbook workbook = new SXSSFWorkbook(rowAccessWindowSize);
+		workbook.setCompressTempFiles(true);
+		doExportExcel(response, fileName, new ExcelWorkbook(workbook, "xlsx"), listFiller(exportData));
+	}
+
+	/**
+	 * <p>以流式方式导出 xlsx Excel 文件，导出数据由迭代器逐条提供，内存中仅保留 {@link #DEFAULT_ROW_ACCESS_WINDOW} 行。</p>
+	 * @param response
+	 * @param fileName
+	 * @param entityClass 导出实体类型
+	 * @param exportData 导出数据迭代器
+	 */
+	public static <T> void doExportForSxlsx(HttpServletResponse response, String fileName, Class<T> entityClass,
+			Iterator<? extends T> exportData) {
+		doExportForSxlsx(response, fileName, entityClass, exportData, DEFAULT_ROW_ACCESS_WINDOW);
+	}
+
+	/**
+	 * <p>以流式方式导出 xlsx Excel 文件，导出数据由迭代器逐条提供。</p>
+	 * @param response
+	 * @param fileName
+	 * @param entityClass 导出实体类型
+	 * @param exportData 导出数据迭代器
+	 * @param rowAccessWindowSize 内存中保留的行数
+	 */
+	public static <T> void doExportForSxlsx(HttpServletResponse response, String fileName, Class<T> entityClass,
+			final Iterator<? extends T> exportData, int rowAccessWindowSize) {
+		doExportForSxlsx(response, fileName, entityClass, new ExportDataProvider<T>() {
+			@Override
+			public void provide(EntityCallbackHandler<T> handler) {
+				while (exportData.hasNext()) {
+					handler.processEntity(exportData.next());
+				}
+			}
+		}, rowAccessWindowSize);
+	}
+
+	/**
+	 * <p>以流式方式导出 xlsx Excel 文件，导出数据直接从查询结果逐行写入，不会生成结果集合，
+	 * 内存中仅保留 {@link #DEFAULT_ROW_ACCESS_WINDOW} 行。</p>
+	 * <p>注意：动态条件key必须在查询SQL语句中存在</p>
+	 * @param response
+	 * @param fileName
+	 * @param jdbcTemplate 查询模板
+	 * @param entityClass 导出实体类型
+	 * @param sql sql语句
+	 * @param conditions 动态条件（按键值动态添加条件）
+	 * @param orders 动态排序（true: 正序, false: 倒序）
+	 */
+	public static <T> void doExportForSxlsx(HttpServletResponse response, String fileName,
+			ExtendJdbcTemplate jdbcTemplate, Class<T> entityClass, String sql, Map<String, Object> conditions,
+			Map<String, Boolean> orders) {
+		doExportForSxlsx(response, fileName, jdbcTemplate, entityClass, sql, conditions, orders,
+				DEFAULT_ROW_ACCESS_WINDOW);
+	}
+
+	/**
+	 * <p>以流式方式导出 xlsx Excel 文件，导出数据直接从查询结果逐行写入，不会生成结果集合。</p>
+	 * <p>注意：动态条件key必须在查询SQL语句中存在</p>
+	 * @param response
+	 * @param fileName
+	 * @param jdbcTemplate 查询模板
+	 * @param entityClass 导出实体类型
+	 * @param sql sql语句
+	 * @param conditions 动态条件（按键值动态添加条件）
+	 * @param orders 动态排序（true: 正序, false: 倒序）
+	 * @param rowAccessWindowSize 内存中保留的行数
+	 */
+	public static <T> void doExportForSxlsx(HttpServletResponse response, String fileName,
+			final ExtendJdbcTemplate jdbcTemplate, final Class<T> entityClass, final String sql,
+			final Map<String, Object> conditions, final Map<String, Boolean> orders, int rowAccessWindowSize) {
+		doExportForSxlsx(response, fileName, entityClass, new ExportDataProvider<T>() {
+			@Override
+			public void provide(EntityCallbackHandler<T> handler) {
+				jdbcTemplate.queryForEach(entityClass, sql, conditions, orders, handler);
+			}
+		}, rowAccessWindowSize);
+	}
+
+	/**
+	 * <p>以流式方式导出 xlsx Excel 文件，导出数据由提供者逐条提供，内存中仅保留 {@link #DEFAULT_ROW_ACCESS_WINDOW} 行。</p>
+	 * @param response
+	 * @param fileName
+	 * @param entityClass 导出实体类型
+	 * @param provider 导出数据提供者
+	 */
+	public static <T> void doExportForSxlsx(HttpServletResponse response, String fileName, Class<T> entityClass,
+			ExportDataProvider<T> provider) {
+		doExportForSxlsx(response, fileName, entityClass, provider, DEFAULT_ROW_ACCESS_WINDOW);
+	}
+
+	/**
+	 * <p>以流式方式导出 xlsx Excel 文件，导出数据由提供者逐条提供。</p>
+	 * @param response
+	 * @param fileName
+	 * @param entityClass 导出实体类型
+	 * @param provider 导出数据提供者
+	 * @param rowAccessWindowSize 内存中保留的行数
+	 */
+	public static <T> void doExportForSxlsx(HttpServletResponse response, String fileName, Class<T> entityClass,
+			ExportDataProvider<T> provider, int rowAccessWindowSize) {
+		SXSSFWorkbook workbook = new SXSSFWorkbook(rowAccessWindowSize);
+		workbook.setCompressTempFiles(true);
+		doExportExcel(response, fileName, new ExcelWorkbook(workbook, "xlsx"), providerFiller(entityClass, provider));
+	}
+
+	/**
+	 * <p>并行导出 xls Excel 文件，每个工作表最多 <tt>rowsPerSheet</tt> 行数据（不超过 65535），超出部分写入新的工作表。</p>
+	 * @param response
+	 * @param fileName
+	 * @param exportData
+	 * @param rowsPerSheet 每个工作表的数据行数（不含标题行）
+	 * @see #doParallelExport(HttpServletResponse, String, ExcelWorkbook, List, int, ExecutorService)
+	 */
+	public static <T> void doParallelExportForXls(HttpServletResponse response, String fileName, List<T> exportData,
+			int rowsPerSheet) {
+		doParallelExport(response, fileName, new ExcelWorkbook(new HSSFWorkbook(), "xls"), exportData, rowsPerSheet,
+				DefaultExecutorHolder.EXECUTOR);
+	}
+
+	/**
+	 * <p>并行导出 xlsx Excel 文件，每个工作表最多 <tt>rowsPerSheet</tt> 行数据（不超过 1048575），超出部分写入新的工作表。</p>
+	 * @param response
+	 * @param fileName
+	 * @param exportData
+	 * @param rowsPerSheet 每个工作表的数据行数（不含标题行）
+	 * @see #doParallelExport(HttpServletResponse, String, ExcelWorkbook, List, int, ExecutorService)
+	 */
+	public static <T> void doParallelExportForXlsx(HttpServletResponse response, String fileName, List<T> exportData,
+			int rowsPerSheet) {
+		doParallelExport(response, fileName, new ExcelWorkbook(new XSSFWorkbook(), "xlsx"), exportData, rowsPerSheet,
+				DefaultExecutorHolder.EXECUTOR);
+	}
+
+	/**
+	 * <p>以流式方式并行导出 xlsx Excel 文件，每个工作表最多 <tt>rowsPerSheet</tt> 行数据，超出部分写入新的工作表。</p>
+	 * @param response
+	 * @param fileName
+	 * @param exportData
+	 * @param rowsPerSheet 每个工作表的数据行数（不含标题行）
+	 * @see #doParallelExport(HttpServletResponse, String, ExcelWorkbook, List, int, ExecutorService)
+	 */
+	public static <T> void doParallelExportForSxlsx(HttpServletResponse response, String fileName, List<T> exportData,
+			int rowsPerSheet) {
+		SXSSFWorkbook workbook = new SXSSFWorkbook(DEFAULT_ROW_ACCESS_WINDOW);
+		workbook.setCompressTempFiles(true);
+		doParallelExport(response, fileName, new ExcelWorkbook(workbook, "xlsx"), exportData, rowsPerSheet,
+				DefaultExecutorHolder.EXECUTOR);
+	}
+
+	/**
+	 * <p>并行导出 Excel 文件。</p>
+	 * <p>每个工作表最多 <tt>rowsPerSheet</tt> 行并重复标题行。导出数据按固定行数（{@value #PARALLEL_CHUNK_SIZE}）分片，
+	 * 各分片的取值转换在线程池中并行执行，同一时刻最多处理线程数 + 1 个分片；POI 工作表非线程安全，单元格仍由当前线程按顺序写入，
+	 * 写满一个工作表后换表。</p>
+	 * @param response
+	 * @param fileName
+	 * @param workbook 工作表
+	 * @param exportData
+	 * @param rowsPerSheet 每个工作表的数据行数（不含标题行），小于 1 或超过格式上限时取格式上限
+	 * @param executor 取值转换线程池
+	 */
+	public static <T> void doParallelExport(HttpServletResponse response, String fileName, ExcelWorkbook workbook,
+			List<T> exportData, int rowsPerSheet, ExecutorService executor) {
+		doExportExcel(response, fileName, workbook, parallelFiller(exportData, rowsPerSheet, executor));
 	}
 
-	private static <T> void createWorkbook(Workbook book, List<T> exports) {
-		Sheet sheet = book.createSheet();
+	private static <T> void createWorkbook(ExcelWorkbook book, List<T> exports, int rowsPerSheet) {
 		if (exports == null || exports.isEmpty()) {
+			book.getWorkbook().createSheet();
 			return;
 		}
-		List<Entry> entrys = new ArrayList<Entry>();
-		Class<?> entityClass = exports.get(0).getClass();
-
-		getEntryByEntityClass(entityClass, entrys);
+		SheetWriter writer = new SheetWriter(book, ExportPlan.of(exports.get(0).getClass()), rowsPerSheet);
+		for (int i = 0, size = exports.size(); i < size; i++) {
+			writer.processEntity(exports.get(i));
+		}
+	}
 
-		// 排序
-		Collections.sort(entrys, new Comparator<Entry>() {
+	private static <T> void createWorkbook(ExcelWorkbook book, Class<T> entityClass, ExportDataProvider<T> provider) {
+		if (entityClass == null) {
+			book.getWorkbook().createSheet();
+			return;
+		}
+		final SheetWriter writer = new SheetWriter(book, ExportPlan.of(entityClass), 0);
+		provider.provide(new EntityCallbackHandler<T>() {
 			@Override
-			public int compare(Entry o1, Entry o2) {
-				return o1.order - o2.order;
+			public void processEntity(T entity) {
+				writer.processEntity(entity);
 			}
 		});
+	}
 
-		createSheetTitle(sheet, entrys);
-
-		createSheetBody(sheet, entityClass, entrys, exports);
+	private static <T> void createWorkbookInParallel(ExcelWorkbook book, List<T> exports, int rowsPerSheet,
+			ExecutorService executor) throws Exception {
+		if (exports == null || exports.isEmpty()) {
+			book.getWorkbook().createSheet();
+			return;
+		}
+		ExportPlan plan = ExportPlan.of(exports.get(0).getClass());
+		SheetWriter writer = new SheetWriter(book, plan, rowsPerSheet);
+		List<List<T>> partitions = Lists.partition(exports, PARALLEL_CHUNK_SIZE);
+		int window = getParallelism(executor) + 1;
+		LinkedList<Future<Object[][]>> futures = new LinkedList<Future<Object[][]>>();
+		int submitted = 0;
+		try {
+			for (int i = 0, size = partitions.size(); i < size; i++) {
+				while (submitted < size && futures.size() < window) {
+					futures.add(executor.submit(new RowValuesTask(plan, partitions.get(submitted++))));
+				}
+				// 按顺序写入，写满一个工作表后自动换表
+				Object[][] rows = futures.removeFirst().get();
+				for (Object[] values : rows) {
+					writer.processValues(values);
+				}
+			}
+		} finally {
+			for (Future<Object[][]> future : futures) {
+				future.cancel(true);
+			}
+		}
 	}
 
-	private static <T> void getEntryByEntityClass(Class<?> entityClass, List<Entry> entrys) {
-		Field[] fields = entityClass.getDeclaredFields();
-		PropertyDescriptor property = null;
-		for (Field field : fields) {
-			Export e = field.getAnnotation(Export.class);
-			if (e == null)
-				continue;
-			property = BeanUtils.getPropertyDescriptor(entityClass, field.getName());
-			entrys.add(new Entry(property, e.name(), e.json(), e.order()));
+	private static int getParallelism(ExecutorService executor) {
+		if (executor instanceof ThreadPoolExecutor) {
+			return Math.max(1, Math.min(((ThreadPoolExecutor) executor).getMaximumPoolSize(), PROCESSORS));
 		}
+		return PROCESSORS;
 	}
 
-	private static <T> void createSheetTitle(Sheet sheet, List<Entry> entrys) {
-		for (int i = 0, size = entrys.size(); i < size; i++) {
-			Entry entry = entrys.get(i);
+	private static void createSheetTitle(Sheet sheet, List<ExportPlan.Column> columns) {
+		for (int i = 0, size = columns.size(); i < size; i++) {
 			Cell cell = getCell(sheet, 0, i);
-			setCellValue(cell, entry.name);
+			cell.setCellValue(columns.get(i).name);
 		}
 	}
 
-	private static <T> void createSheetBody(Sheet sheet, Class<?> entityClass, List<Entry> entrys, List<T> exports) {
-		for (int i = 0, isize = exports.size(); i < isize; i++) {
-			T export = exports.get(i);
-			for (int j = 0, jsize = entrys.size(); j < jsize; j++) {
-				Cell cell = getCell(sheet, (i + 1), j);
-				setValueToCell(cell, export, entrys.get(j));
+	private static <T> void createSheetRow(Sheet sheet, int rowNum, List<ExportPlan.Column> columns,
+			CellStyle[] styles, T export) {
+		Row row = sheet.createRow(rowNum);
+		for (int j = 0, jsize = columns.size(); j < jsize; j++) {
+			Cell cell = getCell(row, j);
+			if (styles[j] != null) {
+				cell.setCellStyle(styles[j]);
 			}
+			columns.get(j).write(cell, export);
 		}
 	}
 
-	private static <T> void setValueToCell(Cell cell, T entity, Entry entry) {
-		try {
-			Method method = entry.property.getReadMethod();
-			Object value = method.invoke(entity, EMPTY);
-			Map<Byte, String> jsonMap = entry.json;
-			if (jsonMap != null && !jsonMap.isEmpty()) {
-				String name = jsonMap.get(value);
-				value = (StringUtils.isNotBlank(name)) ? name : "未知";
+	private static void createSheetRow(Sheet sheet, int rowNum, List<ExportPlan.Column> columns, CellStyle[] styles,
+			Object[] values) {
+		Row row = sheet.createRow(rowNum);
+		for (int j = 0, jsize = columns.size(); j < jsize; j++) {
+			Cell cell = getCell(row, j);
+			if (styles[j] != null) {
+				cell.setCellStyle(styles[j]);
 			}
-			setCellValue(cell, value);
-		} catch (Exception e) {
-			e.printStackTrace();
+			columns.get(j).writeValue(cell, values[j]);
 		}
 	}
 
@@ -165,103 +381,178 @@ public class ExcelEntityUtil {
 		return (c == null) ? row.createCell(col) : c;
 	}
 
-	/**
-	 * 设置Excel样式和值
-	 * @param cell
-	 * @param value
-	 */
-	private static void setCellValue(Cell cell, Object value) {
-		if (value == null) {
-			cell.setCellType(HSSFCell.CELL_TYPE_BLANK);
-			cell.setCellValue("");
-		} else if (value instanceof Byte || value.getClass() == byte.class) {
-			cell.setCellType(HSSFCell.CELL_TYPE_NUMERIC);
-			cell.setCellValue((Byte) value);
-		} else if (value instanceof Short || value.getClass() == short.class) {
-			cell.setCellType(HSSFCell.CELL_TYPE_NUMERIC);
-			cell.setCellValue((Short) value);
-		} else if (value instanceof Integer || value.getClass() == int.class) {
-			cell.setCellType(HSSFCell.CELL_TYPE_NUMERIC);
-			cell.setCellValue((Integer) value);
-		} else if (value instanceof Long || value.getClass() == long.class) {
-			cell.setCellType(HSSFCell.CELL_TYPE_NUMERIC);
-			cell.setCellValue((Long) value);
-		} else if (value instanceof Float || value.getClass() == float.class) {
-			cell.setCellType(HSSFCell.CELL_TYPE_NUMERIC);
-			cell.setCellValue((Float) value);
-		} else if (value instanceof Double || value.getClass() == double.class) {
-			cell.setCellType(HSSFCell.CELL_TYPE_NUMERIC);
-			cell.setCellValue((Double) value);
-		} else if (value instanceof Date) {
-			cell.setCellType(HSSFCell.CELL_TYPE_STRING);
-			cell.setCellValue(DATE_FORMAT.format((Date) value));
-		} else {
-			cell.setCellType(HSSFCell.CELL_TYPE_STRING);
-			cell.setCellValue((String) value);
-		}
+	private static <T> WorkbookFiller listFiller(final List<T> exportData) {
+		return new WorkbookFiller() {
+			@Override
+			public void fill(ExcelWorkbook workbook) {
+				createWorkbook(workbook, exportData, 0);
+			}
+		};
 	}
 
-	private static Map<Byte, String> getFieldValueJson(String valueJson) {
-		String json = null;
-		Matcher m = Pattern.compile("\\{.+\\}").matcher(valueJson);
-		if (m.find()) {
-			json = m.group();
-		}
-		if (StringUtils.isBlank(json)) {
-			return null;
-		}
-		Map<Byte, String> data = new LinkedHashMap<Byte, String>();
-		json = StringUtils.substring(json, 1, json.length() - 1);
-		for (String item : StringUtils.split(json, ",")) {
-			String[] fields = StringUtils.split(item, ":");
-			data.put(Byte.valueOf(fields[0]), fields[1]);
-		}
-		return data;
+	private static <T> WorkbookFiller providerFiller(final Class<T> entityClass, final ExportDataProvider<T> provider) {
+		return new WorkbookFiller() {
+			@Override
+			public void fill(ExcelWorkbook workbook) {
+				createWorkbook(workbook, entityClass, provider);
+			}
+		};
+	}
 
+	private static <T> WorkbookFiller parallelFiller(final List<T> exportData, final int rowsPerSheet,
+			final ExecutorService executor) {
+		return new WorkbookFiller() {
+			@Override
+			public void fill(ExcelWorkbook workbook) throws Exception {
+				createWorkbookInParallel(workbook, exportData, rowsPerSheet, executor);
+			}
+		};
 	}
 
-	private static <T> void doExportExcel(HttpServletResponse response, String fileName, ExcelWorkbook workbookWrapper,
-			List<T> exportData) {
+	private static void doExportExcel(HttpServletResponse response, String fileName, ExcelWorkbook workbookWrapper,
+			WorkbookFiller filler) {
 		OutputStream output = null;
 		try {
-			StringBuilder builder = new StringBuilder();
-			if (StringUtils.isNotBlank(fileName)) {
-				builder.append(new String(fileName.getBytes("gb2312"), "iso8859-1"));
-			} else {
-				builder.append(System.nanoTime());
-			}
-			builder.append('.').append(workbookWrapper.getSuffix());
 			output = response.getOutputStream();
 			response.reset();
 			response.setContentType("bin");
 			response.setContentType("application/vnd.ms-excel");
-			response.setHeader("Content-Disposition", "attachment; filename=" + builder.toString());
+			response.setHeader("Content-Disposition",
+					"attachment; filename=" + attachmentFileName(fileName, workbookWrapper.getSuffix()));
 			Workbook workbook = workbookWrapper.getWorkbook();
-			createWorkbook(workbook, exportData);
+			filler.fill(workbookWrapper);
 			workbook.write(output);
 			output.flush();
 		} catch (Exception e) {
 			throw new BusinessException(e.getMessage(), e);
 		} finally {
 			IOUtils.closeQuietly(output);
+			workbookWrapper.dispose();
 		}
 	}
 
+	/**
+	 * <p>将导出数据写入 Excel 输出流，输出流由调用方关闭。</p>
+	 * @param output
+	 * @param workbookWrapper
+	 * @param entityClass 导出实体类型，为 null 时写入一个空的工作表
+	 * @param provider 导出数据提供者
+	 * @throws IOException
+	 */
+	static <T> void writeExcel(OutputStream output, ExcelWorkbook workbookWrapper, Class<T> entityClass,
+			ExportDataProvider<T> provider) throws IOException {
+		try {
+			createWorkbook(workbookWrapper, entityClass, provider);
+			workbookWrapper.getWorkbook().write(output);
+			output.flush();
+		} finally {
+			workbookWrapper.dispose();
+		}
+	}
+
+	/**
+	 * <p>生成下载文件名，未指定文件名时以当前纳秒时间命名。</p>
+	 * @param fileName 文件名（不含后缀）
+	 * @param suffix 后缀名
+	 * @return
+	 * @throws UnsupportedEncodingException
+	 */
+	static String attachmentFileName(String fileName, String suffix) throws UnsupportedEncodingException {
+		StringBuilder builder = new StringBuilder();
+		if (StringUtils.isNotBlank(fileName)) {
+			builder.append(new String(fileName.getBytes("gb2312"), "iso8859-1"));
+		} else {
+			builder.append(System.nanoTime());
+		}
+		builder.append('.').append(suffix);
+		return builder.toString();
+	}
+
 	private ExcelEntityUtil() {
 	}
 
-	private static class Entry {
-		public final PropertyDescriptor property;
-		public final String name;
-		public final Map<Byte, String> json;
-		public final int order;
-	
-		public Entry(PropertyDescriptor property, String name, String json, int order) {
-			this.property = property;
-			this.name = name;
-			this.json = getFieldValueJson(json);
-			this.order = order;
+	/**
+	 * <p>向工作表写入导出数据。</p>
+	 */
+	private interface WorkbookFiller {
+		void fill(ExcelWorkbook workbook) throws Exception;
+	}
+
+	/**
+	 * <p>按顺序将导出实体逐行写入工作表，写满 <tt>rowsPerSheet</tt> 行后新建工作表并重复标题行。</p>
+	 */
+	private static class SheetWriter {
+		private final Workbook book;
+		private final List<ExportPlan.Column> columns;
+		private final CellStyle[] styles;
+		private final int rowsPerSheet;
+		private Sheet sheet;
+		private int rowNum = 0;
+
+		public SheetWriter(ExcelWorkbook book, ExportPlan plan, int rowsPerSheet) {
+			int maxRows = book.getMaxRows() - 1;
+			this.book = book.getWorkbook();
+			this.columns = plan.columns;
+			this.styles = book.getCellStyles(columns);
+			this.rowsPerSheet = (rowsPerSheet < 1 || rowsPerSheet > maxRows) ? maxRows : rowsPerSheet;
+			nextSheet();
 		}
+
+		public void processEntity(Object entity) {
+			if (rowNum >= rowsPerSheet) {
+				nextSheet();
+			}
+			createSheetRow(sheet, ++rowNum, columns, styles, entity);
+		}
+
+		public void processValues(Object[] values) {
+			if (rowNum >= rowsPerSheet) {
+				nextSheet();
+			}
+			createSheetRow(sheet, ++rowNum, columns, styles, values);
+		}
+
+		private void nextSheet() {
+			sheet = book.createSheet();
+			rowNum = 0;
+			createSheetTitle(sheet, columns);
+		}
+	}
+
+	/**
+	 * <p>读取一个分片内全部实体的列值。</p>
+	 */
+	private static class RowValuesTask implements Callable<Object[][]> {
+		private final List<ExportPlan.Column> columns;
+		private final List<?> exports;
+
+		public RowValuesTask(ExportPlan plan, List<?> exports) {
+			this.columns = plan.columns;
+			this.exports = exports;
+		}
+
+		@Override
+		public Object[][] call() {
+			Object[][] rows = new Object[exports.size()][];
+			for (int i = 0; i < rows.length; i++) {
+				Object export = exports.get(i);
+				Object[] values = new Object[columns.size()];
+				for (int j = 0; j < values.length; j++) {
+					try {
+						values[j] = columns.get(j).getValue(export);
+					} catch (Exception e) {
+						e.printStackTrace();
+					}
+				}
+				rows[i] = values;
+			}
+			return rows;
+		}
+	}
+
+	private static class DefaultExecutorHolder {
+		static final ExecutorService EXECUTOR = Executors.newFixedThreadPool(PROCESSORS, new ThreadFactoryBuilder()
+				.setDaemon(true).setNameFormat("excel-export-%d").build());
 	}
 
 }
\ No newline at end of file
@@ -1,6 +1,15 @@
 package com.aimartt.framework.excel;
 
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.SpreadsheetVersion;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.DataFormat;
 import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 
 public class ExcelWorkbook {
 
@@ -8,6 +17,9 @@ public class ExcelWorkbook {
 	private final String suffix;
 	/** 工作表 */
 	private final Workbook workbook;
+	/** 按格式缓存的单元格样式，同一格式在工作表中只创建一次 */
+	private final Map<String, CellStyle> cellStyles = new HashMap<String, CellStyle>();
+	private DataFormat dataFormat;
 
 	public ExcelWorkbook(Workbook workbook, String suffix) {
 		this.workbook = workbook;
@@ -22,4 +34,55 @@ public class ExcelWorkbook {
 		return workbook;
 	}
 
+	/**
+	 * <p>获取指定格式的单元格样式，同一格式只创建一个样式对象。</p>
+	 * @param pattern 单元格格式，如 yyyy-MM-dd
+	 * @return
+	 */
+	public CellStyle getCellStyle(String pattern) {
+		CellStyle style = cellStyles.get(pattern);
+		if (style == null) {
+			if (dataFormat == null) {
+				dataFormat = workbook.createDataFormat();
+			}
+			style = workbook.createCellStyle();
+			style.setDataFormat(dataFormat.getFormat(pattern));
+			cellStyles.put(pattern, style);
+		}
+		return style;
+	}
+
+	/**
+	 * <p>获取各导出列的单元格样式，无需格式的列为 null。</p>
+	 * @param columns
+	 * @return
+	 */
+	CellStyle[] getCellStyles(List<ExportPlan.Column> columns) {
+		CellStyle[] styles = new CellStyle[columns.size()];
+		for (int i = 0; i < styles.length; i++) {
+			String pattern = columns.get(i).pattern;
+			styles[i] = (pattern != null) ? getCellStyle(pattern) : null;
+		}
+		return styles;
+	}
+
+	/**
+	 * <p>单个工作表允许的最大行数（含标题行），xls 为 65536，xlsx 为 1048576。</p>
+	 * @return
+	 */
+	public int getMaxRows() {
+		SpreadsheetVersion version = (workbook instanceof HSSFWorkbook) ? SpreadsheetVersion.EXCEL97
+				: SpreadsheetVersion.EXCEL2007;
+		return version.getMaxRows();
+	}
+
+	/**
+	 * <p>释放工作表占用的资源，流式工作表将删除其临时文件。</p>
+	 */
+	public void dispose() {
+		if (workbook instanceof SXSSFWorkbook) {
+			((SXSSFWorkbook) workbook).dispose();
+		}
+	}
+
 }
\ No newline at end of file
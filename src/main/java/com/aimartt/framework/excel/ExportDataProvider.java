@@ -0,0 +1,18 @@
+package com.aimartt.framework.excel;
+
+import com.aimartt.framework.jdbc.EntityCallbackHandler;
+
+/**
+ * <p>导出数据提供者。</p>
+ * <p>按顺序将导出实体逐条交给处理器，导出数据无需一次性加载到内存中。</p>
+ * @param <T> 导出实体类型
+ */
+public interface ExportDataProvider<T> {
+
+	/**
+	 * <p>提供导出数据。</p>
+	 * @param handler 导出实体处理器
+	 */
+	void provide(EntityCallbackHandler<T> handler);
+
+}
@@ -0,0 +1,33 @@
+package com.aimartt.framework.excel;
+
+/**
+ * <p>导出文件格式。</p>
+ */
+public enum ExportFormat {
+
+	/** Excel 97-2003 */
+	XLS("xls", "application/vnd.ms-excel"),
+	/** Excel 2007，以流式方式写入 */
+	XLSX("xlsx", "application/vnd.ms-excel"),
+	/** 逗号分隔 */
+	CSV("csv", "text/csv;charset=UTF-8"),
+	/** 制表符分隔 */
+	TSV("tsv", "text/tab-separated-values;charset=UTF-8");
+
+	private final String suffix;
+	private final String contentType;
+
+	private ExportFormat(String suffix, String contentType) {
+		this.suffix = suffix;
+		this.contentType = contentType;
+	}
+
+	public String getSuffix() {
+		return suffix;
+	}
+
+	public String getContentType() {
+		return contentType;
+	}
+
+}
@@ -0,0 +1,117 @@
+package com.aimartt.framework.excel;
+
+import java.io.File;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>后台导出任务。</p>
+ * <p>由 {@link ExportJobService} 创建，记录任务状态、已写入行数及导出文件。</p>
+ */
+public class ExportJob {
+
+	/**
+	 * <p>导出任务状态。</p>
+	 */
+	public enum Status {
+		/** 等待执行 */
+		WAITING,
+		/** 正在导出 */
+		RUNNING,
+		/** 导出完成 */
+		FINISHED,
+		/** 导出失败 */
+		FAILED
+	}
+
+	private final String id;
+	private final String fileName;
+	private final ExportFormat format;
+	private final long totalRows;
+	private final Date createTime = new Date();
+	private final AtomicLong rowCount = new AtomicLong();
+	private volatile Status status = Status.WAITING;
+	private volatile Date finishTime;
+	private volatile String errorMessage;
+	private volatile File file;
+
+	ExportJob(String id, String fileName, ExportFormat format, long totalRows) {
+		this.id = id;
+		this.fileName = fileName;
+		this.format = format;
+		this.totalRows = totalRows;
+	}
+
+	public String getId() {
+		return id;
+	}
+
+	public String getFileName() {
+		return fileName;
+	}
+
+	public ExportFormat getFormat() {
+		return format;
+	}
+
+	/**
+	 * <p>导出总行数，未知时为 -1。</p>
+	 * @return
+	 */
+	public long getTotalRows() {
+		return totalRows;
+	}
+
+	/**
+	 * <p>已写入的行数。</p>
+	 * @return
+	 */
+	public long getRowCount() {
+		return rowCount.get();
+	}
+
+	public Status getStatus() {
+		return status;
+	}
+
+	public boolean isDone() {
+		return status == Status.FINISHED || status == Status.FAILED;
+	}
+
+	public Date getCreateTime() {
+		return createTime;
+	}
+
+	public Date getFinishTime() {
+		return finishTime;
+	}
+
+	public String getErrorMessage() {
+		return errorMessage;
+	}
+
+	File getFile() {
+		return file;
+	}
+
+	void start(File file) {
+		this.file = file;
+		this.status = Status.RUNNING;
+	}
+
+	void increaseRowCount() {
+		rowCount.incrementAndGet();
+	}
+
+	void finish() {
+		this.finishTime = new Date();
+		this.status = Status.FINISHED;
+	}
+
+	void fail(String errorMessage) {
+		this.errorMessage = errorMessage;
+		this.finishTime = new Date();
+		this.status = Status.FAILED;
+	}
+
+}
@@ -0,0 +1,311 @@
+package com.aimartt.framework.excel;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.log4j.Logger;
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.springframework.beans.factory.DisposableBean;
+
+import com.aimartt.framework.exception.BusinessException;
+import com.aimartt.framework.jdbc.EntityCallbackHandler;
+import com.aimartt.framework.jdbc.ExtendJdbcTemplate;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * <p>后台导出任务服务。</p>
+ * <p>导出任务在有界线程池中执行，文件先写入本地临时目录，请求线程只负责提交任务、查询进度和下载文件，
+ * 不会在导出期间占用请求线程和数据库连接。下载时通过 {@link FileChannel#transferTo(long, long, WritableByteChannel)}
+ * 直接将文件传输到响应输出流。</p>
+ * <p>完成的任务及其文件在保留时间后清理。</p>
+ */
+public class ExportJobService implements DisposableBean {
+
+	static final Logger logger = Logger.getLogger(ExportJobService.class);
+
+	/** 默认导出线程数 */
+	public static final int DEFAULT_THREADS = 2;
+	/** 默认等待队列长度 */
+	public static final int DEFAULT_QUEUE_CAPACITY = 16;
+	/** 默认任务保留时间（毫秒） */
+	public static final long DEFAULT_RETENTION_MILLIS = TimeUnit.HOURS.toMillis(1);
+
+	private final ThreadPoolExecutor executor;
+	private final File spoolDirectory;
+	private final ConcurrentMap<String, ExportJob> jobs = new ConcurrentHashMap<String, ExportJob>();
+	private long retentionMillis = DEFAULT_RETENTION_MILLIS;
+	private int rowAccessWindowSize = ExcelEntityUtil.DEFAULT_ROW_ACCESS_WINDOW;
+
+	public ExportJobService() {
+		this(DEFAULT_THREADS, DEFAULT_QUEUE_CAPACITY, new File(System.getProperty("java.io.tmpdir"), "export-jobs"));
+	}
+
+	/**
+	 * @param threads 导出线程数
+	 * @param queueCapacity 等待队列长度，队列已满时拒绝提交
+	 * @param spoolDirectory 导出文件目录
+	 */
+	public ExportJobService(int threads, int queueCapacity, File spoolDirectory) {
+		this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<Runnable>(queueCapacity), new ThreadFactoryBuilder().setDaemon(true)
+						.setNameFormat("export-job-%d").build());
+		this.spoolDirectory = spoolDirectory;
+	}
+
+	/**
+	 * <p>提交导出任务。</p>
+	 * @param fileName 下载文件名（不含后缀）
+	 * @param format 导出格式
+	 * @param exportData 导出数据，为空时导出空文件
+	 * @return 导出任务
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> ExportJob submit(String fileName, ExportFormat format, final List<T> exportData) {
+		Class<T> entityClass = null;
+		if (exportData != null && !exportData.isEmpty()) {
+			entityClass = (Class<T>) exportData.get(0).getClass();
+		}
+		return submit(fileName, format, entityClass, new ExportDataProvider<T>() {
+			@Override
+			public void provide(EntityCallbackHandler<T> handler) {
+				for (int i = 0, size = (exportData != null) ? exportData.size() : 0; i < size; i++) {
+					handler.processEntity(exportData.get(i));
+				}
+			}
+		}, (exportData != null) ? exportData.size() : 0);
+	}
+
+	/**
+	 * <p>提交导出任务，导出数据在导出线程中直接从查询结果逐行写入。</p>
+	 * <p>注意：动态条件key必须在查询SQL语句中存在</p>
+	 * @param fileName 下载文件名（不含后缀）
+	 * @param format 导出格式
+	 * @param jdbcTemplate 查询模板
+	 * @param entityClass 导出实体类型
+	 * @param sql sql语句
+	 * @param conditions 动态条件（按键值动态添加条件）
+	 * @param orders 动态排序（true: 正序, false: 倒序）
+	 * @return 导出任务
+	 */
+	public <T> ExportJob submit(String fileName, ExportFormat format, final ExtendJdbcTemplate jdbcTemplate,
+			final Class<T> entityClass, final String sql, final Map<String, Object> conditions,
+			final Map<String, Boolean> orders) {
+		return submit(fileName, format, entityClass, new ExportDataProvider<T>() {
+			@Override
+			public void provide(EntityCallbackHandler<T> handler) {
+				jdbcTemplate.queryForEach(entityClass, sql, conditions, orders, handler);
+			}
+		}, -1);
+	}
+
+	/**
+	 * <p>提交导出任务。</p>
+	 * @param fileName 下载文件名（不含后缀）
+	 * @param format 导出格式
+	 * @param entityClass 导出实体类型
+	 * @param provider 导出数据提供者，在导出线程中调用
+	 * @return 导出任务
+	 */
+	public <T> ExportJob submit(String fileName, ExportFormat format, Class<T> entityClass,
+			ExportDataProvider<T> provider) {
+		return submit(fileName, format, entityClass, provider, -1);
+	}
+
+	private <T> ExportJob submit(String fileName, ExportFormat format, Class<T> entityClass,
+			ExportDataProvider<T> provider, long totalRows) {
+		purgeExpiredJobs();
+		final ExportJob job = new ExportJob(UUID.randomUUID().toString(), fileName, format, totalRows);
+		jobs.put(job.getId(), job);
+		try {
+			executor.execute(new ExportTask<T>(job, entityClass, provider));
+		} catch (RejectedExecutionException e) {
+			jobs.remove(job.getId());
+			throw new BusinessException("导出任务过多，请稍后再试!", e);
+		}
+		return job;
+	}
+
+	/**
+	 * <p>获取导出任务。</p>
+	 * @param jobId 任务ID
+	 * @return 任务不存在或已被清理时返回 null
+	 */
+	public ExportJob getJob(String jobId) {
+		return jobs.get(jobId);
+	}
+
+	/**
+	 * <p>下载已完成的导出文件。</p>
+	 * @param jobId 任务ID
+	 * @param response
+	 */
+	public void download(String jobId, HttpServletResponse response) {
+		ExportJob job = jobs.get(jobId);
+		if (job == null || job.getStatus() != ExportJob.Status.FINISHED) {
+			throw new BusinessException("导出文件不存在或尚未完成!");
+		}
+		FileInputStream input = null;
+		OutputStream output = null;
+		try {
+			input = new FileInputStream(job.getFile());
+			FileChannel channel = input.getChannel();
+			long size = channel.size();
+			response.reset();
+			response.setContentType(job.getFormat().getContentType());
+			response.setHeader("Content-Length", String.valueOf(size));
+			response.setHeader("Content-Disposition", "attachment; filename="
+					+ ExcelEntityUtil.attachmentFileName(job.getFileName(), job.getFormat().getSuffix()));
+			output = response.getOutputStream();
+			WritableByteChannel target = Channels.newChannel(output);
+			long position = 0;
+			while (position < size) {
+				position += channel.transferTo(position, size - position, target);
+			}
+			output.flush();
+		} catch (IOException e) {
+			throw new BusinessException(e.getMessage(), e);
+		} finally {
+			IOUtils.closeQuietly(input);
+			IOUtils.closeQuietly(output);
+		}
+	}
+
+	/**
+	 * <p>删除导出任务及其文件。</p>
+	 * @param jobId 任务ID
+	 */
+	public void remove(String jobId) {
+		ExportJob job = jobs.remove(jobId);
+		if (job != null) {
+			FileUtils.deleteQuietly(job.getFile());
+		}
+	}
+
+	private void purgeExpiredJobs() {
+		long expired = System.currentTimeMillis() - retentionMillis;
+		for (Iterator<ExportJob> it = jobs.values().iterator(); it.hasNext();) {
+			ExportJob job = it.next();
+			if (job.isDone() && job.getFinishTime().getTime() < expired) {
+				it.remove();
+				FileUtils.deleteQuietly(job.getFile());
+			}
+		}
+	}
+
+	@Override
+	public void destroy() {
+		executor.shutdownNow();
+		for (ExportJob job : jobs.values()) {
+			FileUtils.deleteQuietly(job.getFile());
+		}
+		jobs.clear();
+	}
+
+	/**
+	 * <p>设置已完成任务的保留时间。</p>
+	 * @param retentionMillis 毫秒
+	 */
+	public void setRetentionMillis(long retentionMillis) {
+		this.retentionMillis = retentionMillis;
+	}
+
+	/**
+	 * <p>设置 xlsx 导出时内存中保留的行数，默认为 {@link ExcelEntityUtil#DEFAULT_ROW_ACCESS_WINDOW}。</p>
+	 * @param rowAccessWindowSize 行数
+	 */
+	public void setRowAccessWindowSize(int rowAccessWindowSize) {
+		this.rowAccessWindowSize = rowAccessWindowSize;
+	}
+
+	/**
+	 * <p>导出任务，将导出数据写入临时文件并累计写入行数。</p>
+	 */
+	private class ExportTask<T> implements Runnable {
+		private final ExportJob job;
+		private final Class<T> entityClass;
+		private final ExportDataProvider<T> provider;
+
+		public ExportTask(ExportJob job, Class<T> entityClass, ExportDataProvider<T> provider) {
+			this.job = job;
+			this.entityClass = entityClass;
+			this.provider = provider;
+		}
+
+		@Override
+		public void run() {
+			OutputStream output = null;
+			File file = null;
+			try {
+				FileUtils.forceMkdir(spoolDirectory);
+				file = new File(spoolDirectory, job.getId() + "." + job.getFormat().getSuffix());
+				job.start(file);
+				output = new BufferedOutputStream(new FileOutputStream(file), 64 * 1024);
+				ExportDataProvider<T> counting = new ExportDataProvider<T>() {
+					@Override
+					public void provide(final EntityCallbackHandler<T> handler) {
+						provider.provide(new EntityCallbackHandler<T>() {
+							@Override
+							public void processEntity(T entity) {
+								handler.processEntity(entity);
+								job.increaseRowCount();
+							}
+						});
+					}
+				};
+				write(output, counting);
+				output.close();
+				job.finish();
+			} catch (Exception e) {
+				logger.error("导出任务[" + job.getId() + "]失败", e);
+				IOUtils.closeQuietly(output);
+				FileUtils.deleteQuietly(file);
+				job.fail(e.getMessage());
+			}
+		}
+
+		private void write(OutputStream output, ExportDataProvider<T> counting) throws IOException {
+			switch (job.getFormat()) {
+				case XLS:
+					ExcelEntityUtil.writeExcel(output, new ExcelWorkbook(new HSSFWorkbook(), "xls"), entityClass,
+							counting);
+					break;
+				case XLSX:
+					SXSSFWorkbook workbook = new SXSSFWorkbook(rowAccessWindowSize);
+					workbook.setCompressTempFiles(true);
+					ExcelEntityUtil.writeExcel(output, new ExcelWorkbook(workbook, "xlsx"), entityClass, counting);
+					break;
+				case CSV:
+					CsvEntityUtil.write(output, entityClass, counting, ',');
+					break;
+				case TSV:
+					CsvEntityUtil.write(output, entityClass, counting, '\t');
+					break;
+				default:
+					throw new BusinessException("导出格式未定义!");
+			}
+		}
+	}
+
+}
@@ -0,0 +1,364 @@
+package com.aimartt.framework.excel;
+
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.text.DecimalFormat;
+import java.text.ParsePosition;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.poi.ss.usermodel.Cell;
+import org.springframework.beans.BeanUtils;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ConcurrentReferenceHashMap;
+
+import com.aimartt.framework.excel.annotation.Export;
+import com.aimartt.framework.exception.BusinessException;
+import com.aimartt.framework.util.DateUtil;
+import com.aimartt.framework.util.FastMethodInvoker;
+
+/**
+ * <p>实体类的导出计划。</p>
+ * <p>每个实体类只解析一次 {@link Export} 注解：预先绑定取值方法、按字段声明类型选定单元格写入方式，
+ * 并将 json 字典解析为按下标查找的数组。计划不可变，按实体类缓存。</p>
+ */
+final class ExportPlan {
+
+	private static final Map<Class<?>, ExportPlan> PLANS = new ConcurrentReferenceHashMap<Class<?>, ExportPlan>();
+	private static final Pattern JSON_PATTERN = Pattern.compile("\\{.+\\}");
+	private static final String UNKNOWN = "未知";
+	private static final Object[] EMPTY = new Object[0];
+
+	/** 导出实体类型 */
+	public final Class<?> entityClass;
+	/** 按 order 排序的导出列 */
+	public final List<Column> columns;
+
+	/**
+	 * <p>获取实体类的导出计划。</p>
+	 * @param entityClass 导出实体类型
+	 * @return
+	 */
+	static ExportPlan of(Class<?> entityClass) {
+		ExportPlan plan = PLANS.get(entityClass);
+		if (plan == null) {
+			plan = new ExportPlan(entityClass);
+			PLANS.put(entityClass, plan);
+		}
+		return plan;
+	}
+
+	private ExportPlan(Class<?> entityClass) {
+		List<Column> columns = new ArrayList<Column>();
+		for (Field field : entityClass.getDeclaredFields()) {
+			Export e = field.getAnnotation(Export.class);
+			if (e == null) {
+				continue;
+			}
+			PropertyDescriptor property = BeanUtils.getPropertyDescriptor(entityClass, field.getName());
+			if (property == null || property.getReadMethod() == null) {
+				throw new BusinessException(String.format("导出字段[%s.%s]缺少读取方法!", entityClass.getName(),
+						field.getName()));
+			}
+			columns.add(new Column(property, e));
+		}
+		// 排序
+		Collections.sort(columns, new Comparator<Column>() {
+			@Override
+			public int compare(Column o1, Column o2) {
+				return o1.order - o2.order;
+			}
+		});
+		this.entityClass = entityClass;
+		this.columns = Collections.unmodifiableList(columns);
+	}
+
+	/**
+	 * <p>解析 json 字典，如 <tt>{1:男,2:女}</tt>，以 <tt>key + 128</tt> 为下标保存名称。</p>
+	 * @param valueJson
+	 * @return 不存在字典时返回 null
+	 */
+	private static String[] getFieldValueJson(String valueJson) {
+		String json = null;
+		Matcher m = JSON_PATTERN.matcher(valueJson);
+		if (m.find()) {
+			json = m.group();
+		}
+		if (StringUtils.isBlank(json)) {
+			return null;
+		}
+		String[] data = new String[256];
+		json = StringUtils.substring(json, 1, json.length() - 1);
+		for (String item : StringUtils.split(json, ",")) {
+			String[] fields = StringUtils.split(item, ":");
+			data[Byte.valueOf(fields[0]) + 128] = fields[1];
+		}
+		return data;
+	}
+
+	/**
+	 * <p>导出列。</p>
+	 */
+	static final class Column {
+		/** 列标题 */
+		public final String name;
+		public final int order;
+		/** 属性声明类型 */
+		public final Class<?> type;
+		/** 单元格格式，不需要格式时为 null */
+		public final String pattern;
+		private final FastMethodInvoker getter;
+		private final FastMethodInvoker setter;
+		private final String[] dictionary;
+		private final Map<String, Byte> reverseDictionary;
+		private final CellWriter writer;
+
+		Column(PropertyDescriptor property, Export export) {
+			this.name = export.name();
+			this.order = export.order();
+			this.type = ClassUtils.resolvePrimitiveIfNecessary(property.getPropertyType());
+			this.getter = FastMethodInvoker.create(property.getReadMethod());
+			this.setter = (property.getWriteMethod() != null) ? FastMethodInvoker.create(property.getWriteMethod()) : null;
+			this.dictionary = getFieldValueJson(export.json());
+			this.reverseDictionary = reverse(dictionary);
+			this.writer = (dictionary != null) ? CellWriter.STRING : CellWriter.forType(type);
+			if (StringUtils.isNotBlank(export.pattern())) {
+				this.pattern = export.pattern();
+			} else {
+				this.pattern = (writer == CellWriter.DATE) ? DateUtil.PATTEN_OF_DATETIME_DASH : null;
+			}
+		}
+
+		/**
+		 * <p>读取实体的列值，存在字典时返回字典名称。</p>
+		 * @param entity
+		 * @return
+		 */
+		public Object getValue(Object entity) {
+			Object value;
+			try {
+				value = getter.invoke(entity, EMPTY);
+			} catch (Exception e) {
+				throw new BusinessException(e.getMessage(), e);
+			}
+			if (dictionary == null) {
+				return value;
+			}
+			String label = null;
+			if (value instanceof Number) {
+				int index = dictionaryIndex((Number) value);
+				if (index >= 0) {
+					label = dictionary[index];
+				}
+			}
+			return StringUtils.isNotBlank(label) ? label : UNKNOWN;
+		}
+
+		/**
+		 * <p>是否可以回写（导入）该列。</p>
+		 * @return
+		 */
+		public boolean isWritable() {
+			return setter != null;
+		}
+
+		/**
+		 * <p>将单元格文本转换为属性类型后写入实体，存在字典时按名称反查字典值。</p>
+		 * @param entity
+		 * @param text 单元格文本
+		 * @param conversionService 类型转换服务
+		 */
+		public void setText(Object entity, String text, ConversionService conversionService) {
+			Object value = text;
+			if (reverseDictionary != null) {
+				value = reverseDictionary.get(text);
+			} else if (writer == CellWriter.NUMBER) {
+				value = parseNumber(text.trim());
+			} else if (writer == CellWriter.DATE) {
+				value = parseDate(text.trim());
+			}
+			if (value == null) {
+				return;
+			}
+			try {
+				setter.invoke(entity, conversionService.convert(value, type));
+			} catch (Exception e) {
+				throw new BusinessException(e.getMessage(), e);
+			}
+		}
+
+		/**
+		 * <p>解析数值：数值单元格为原始数值（可能带有小数位或科学计数法，如 12.0、1.2E+11），
+		 * 文本单元格按单元格格式解析，如 #,##0.00 格式的 1,234.00。</p>
+		 */
+		private BigDecimal parseNumber(String text) {
+			try {
+				return new BigDecimal(text);
+			} catch (NumberFormatException e) {
+				if (pattern == null) {
+					throw e;
+				}
+			}
+			DecimalFormat format = new DecimalFormat(pattern);
+			format.setParseBigDecimal(true);
+			ParsePosition position = new ParsePosition(0);
+			Number number = format.parse(text, position);
+			if (number == null || position.getIndex() != text.length()) {
+				throw new IllegalArgumentException(String.format("数值[%s]与格式[%s]不符", text, pattern));
+			}
+			return (BigDecimal) number;
+		}
+
+		/**
+		 * <p>解析日期：依次按单元格格式和 {@link DateUtil#PARSE_PATTERNS} 解析，须完整匹配。每次解析创建新的格式对象，可并发调用。</p>
+		 */
+		private Date parseDate(String text) {
+			List<String> patterns = new ArrayList<String>();
+			if (pattern != null) {
+				patterns.add(pattern);
+			}
+			Collections.addAll(patterns, DateUtil.PARSE_PATTERNS);
+			for (String p : patterns) {
+				SimpleDateFormat format = new SimpleDateFormat(p);
+				format.setLenient(false);
+				ParsePosition position = new ParsePosition(0);
+				Date date = format.parse(text, position);
+				if (date != null && position.getIndex() == text.length()) {
+					return date;
+				}
+			}
+			throw new IllegalArgumentException(String.format("日期[%s]与格式%s不符", text, patterns));
+		}
+
+		/**
+		 * <p>字典下标（<tt>key + 128</tt>）。非整数或超出 byte 范围的值不是字典值，返回 -1。</p>
+		 */
+		private static int dictionaryIndex(Number value) {
+			long key;
+			if (value instanceof BigDecimal || value instanceof BigInteger) {
+				BigDecimal decimal = (value instanceof BigDecimal) ? (BigDecimal) value
+						: new BigDecimal((BigInteger) value);
+				try {
+					key = decimal.byteValueExact();
+				} catch (ArithmeticException e) {
+					return -1;
+				}
+			} else if (value instanceof Double || value instanceof Float) {
+				double number = value.doubleValue();
+				if (number != Math.rint(number) || number < Byte.MIN_VALUE || number > Byte.MAX_VALUE) {
+					return -1;
+				}
+				key = (long) number;
+			} else {
+				key = value.longValue();
+			}
+			return (key < Byte.MIN_VALUE || key > Byte.MAX_VALUE) ? -1 : (int) key + 128;
+		}
+
+		private static Map<String, Byte> reverse(String[] dictionary) {
+			if (dictionary == null) {
+				return null;
+			}
+			Map<String, Byte> reverse = new HashMap<String, Byte>();
+			for (int i = 0; i < dictionary.length; i++) {
+				if (dictionary[i] != null) {
+					reverse.put(dictionary[i], (byte) (i - 128));
+				}
+			}
+			return reverse;
+		}
+
+		/**
+		 * <p>将实体的列值写入单元格。</p>
+		 * @param cell
+		 * @param entity
+		 */
+		public void write(Cell cell, Object entity) {
+			try {
+				writeValue(cell, getValue(entity));
+			} catch (Exception e) {
+				e.printStackTrace();
+			}
+		}
+
+		/**
+		 * <p>将已读取的列值写入单元格。</p>
+		 * @param cell
+		 * @param value {@link #getValue(Object)} 的返回值
+		 */
+		public void writeValue(Cell cell, Object value) {
+			if (value == null) {
+				return;
+			}
+			try {
+				writer.write(cell, value);
+			} catch (Exception e) {
+				e.printStackTrace();
+			}
+		}
+	}
+
+	/**
+	 * <p>按属性声明类型选定的单元格写入方式。</p>
+	 */
+	enum CellWriter {
+		NUMBER {
+			@Override
+			void write(Cell cell, Object value) {
+				cell.setCellValue(((Number) value).doubleValue());
+			}
+		},
+		BOOLEAN {
+			@Override
+			void write(Cell cell, Object value) {
+				cell.setCellValue((Boolean) value);
+			}
+		},
+		DATE {
+			@Override
+			void write(Cell cell, Object value) {
+				cell.setCellValue((Date) value);
+			}
+		},
+		STRING {
+			@Override
+			void write(Cell cell, Object value) {
+				cell.setCellValue((String) value);
+			}
+		},
+		TEXT {
+			@Override
+			void write(Cell cell, Object value) {
+				cell.setCellValue(String.valueOf(value));
+			}
+		};
+
+		abstract void write(Cell cell, Object value);
+
+		static CellWriter forType(Class<?> type) {
+			if (Number.class.isAssignableFrom(type)) {
+				return NUMBER;
+			} else if (Boolean.class == type) {
+				return BOOLEAN;
+			} else if (Date.class.isAssignableFrom(type)) {
+				return DATE;
+			} else if (String.class == type) {
+				return STRING;
+			}
+			return TEXT;
+		}
+	}
+
+}
@@ -0,0 +1,18 @@
+package com.aimartt.framework.excel;
+
+import java.util.List;
+
+/**
+ * <p>导入数据批处理器。</p>
+ * <p>导入过程中每读满一批实体即调用一次，通常用于批量持久化。</p>
+ * @param <T> 导入实体类型
+ */
+public interface ImportBatchHandler<T> {
+
+	/**
+	 * <p>处理一批导入实体。</p>
+	 * @param batch 导入实体，处理器可以持有该集合
+	 */
+	void handle(List<T> batch);
+
+}
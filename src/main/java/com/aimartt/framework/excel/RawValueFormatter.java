@@ -0,0 +1,24 @@
+package com.aimartt.framework.excel;
+
+import java.math.BigDecimal;
+import java.text.SimpleDateFormat;
+
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.usermodel.DateUtil;
+
+/**
+ * <p>导入时使用的单元格格式化：数值单元格不按单元格格式显示，而是返回原始数值，避免千分位、货币符号等格式导致无法解析。</p>
+ * <p>日期单元格统一转换为 yyyy-MM-dd HH:mm:ss，数值单元格转换为不带指数的十进制文本，如 1234.5。</p>
+ */
+final class RawValueFormatter extends DataFormatter {
+
+	@Override
+	public String formatRawCellContents(double value, int formatIndex, String formatString, boolean use1904Windowing) {
+		if (DateUtil.isADateFormat(formatIndex, formatString) && DateUtil.isValidExcelDate(value)) {
+			return new SimpleDateFormat(com.aimartt.framework.util.DateUtil.PATTEN_OF_DATETIME_DASH).format(DateUtil
+					.getJavaDate(value, use1904Windowing));
+		}
+		return BigDecimal.valueOf(value).stripTrailingZeros().toPlainString();
+	}
+
+}
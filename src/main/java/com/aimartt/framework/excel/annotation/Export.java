@@ -17,4 +17,9 @@ public @interface Export {
 
 	public int order();
 
+	/**
+	 * 单元格格式，如 yyyy-MM-dd、#,##0.00；日期字段默认为 yyyy-MM-dd HH:mm:ss
+	 */
+	public String pattern() default "";
+
 }
\ No newline at end of file
@@ -0,0 +1,19 @@
+package com.aimartt.framework.jdbc;
+
+import java.io.Closeable;
+import java.util.Iterator;
+
+/**
+ * <p>需要关闭的查询结果迭代器。</p>
+ * <p>迭代器持有数据库连接和结果集，遍历结束时自动关闭；提前结束遍历时必须调用 {@link #close()}，建议使用 try-with-resources。</p>
+ * @param <T> 实体类型
+ */
+public interface CloseableIterator<T> extends Iterator<T>, Closeable {
+
+	/**
+	 * <p>关闭结果集、语句并释放连接，重复调用无副作用。</p>
+	 */
+	@Override
+	void close();
+
+}
@@ -0,0 +1,17 @@
+package com.aimartt.framework.jdbc;
+
+/**
+ * <p>分页总数统计方式。</p>
+ */
+public enum CountStrategy {
+
+	/** 精确统计：select count(*) from (sql) x */
+	EXACT,
+
+	/** 限量统计：最多统计到上限，超过上限时总数为上限值（页面显示为“N+”） */
+	CAPPED,
+
+	/** 估算：无查询条件时取 EXPLAIN 的估算行数，有查询条件或无法估算时按限量统计 */
+	ESTIMATED;
+
+}
@@ -0,0 +1,51 @@
+package com.aimartt.framework.jdbc;
+
+import java.util.List;
+
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+
+/**
+ * <p>带统计方式的分页结果。</p>
+ * <p>总数不精确时：{@link CountStrategy#CAPPED} 表示实际总数大于 {@link #getTotalElements()}，
+ * {@link CountStrategy#ESTIMATED} 表示总数为估算值，页面可据此显示“N+”或“约 N 条”。</p>
+ * @param <T> 实体类型
+ */
+public class CountedPage<T> extends PageImpl<T> {
+
+	private static final long serialVersionUID = 1L;
+
+	private final CountStrategy countStrategy;
+
+	private final boolean exact;
+
+	/**
+	 * @param content 当前页数据
+	 * @param pageable 分页对象
+	 * @param total 总数
+	 * @param countStrategy 实际使用的统计方式
+	 * @param exact 总数是否精确
+	 */
+	public CountedPage(List<T> content, Pageable pageable, long total, CountStrategy countStrategy, boolean exact) {
+		super(content, pageable, total);
+		this.countStrategy = countStrategy;
+		this.exact = exact;
+	}
+
+	/**
+	 * <p>获取实际使用的统计方式，估算失败时为 {@link CountStrategy#CAPPED}。</p>
+	 * @return
+	 */
+	public CountStrategy getCountStrategy() {
+		return countStrategy;
+	}
+
+	/**
+	 * <p>总数是否精确。</p>
+	 * @return
+	 */
+	public boolean isExact() {
+		return exact;
+	}
+
+}
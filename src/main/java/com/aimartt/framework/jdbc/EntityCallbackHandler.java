@@ -0,0 +1,16 @@
+package com.aimartt.framework.jdbc;
+
+/**
+ * <p>逐条处理查询结果实体的回调接口。</p>
+ * <p>查询结果不会被收集为集合，每映射完一行即交给回调处理，适合大结果集的导出等场景。</p>
+ * @param <T> 实体类型
+ */
+public interface EntityCallbackHandler<T> {
+
+	/**
+	 * <p>处理一条结果实体。</p>
+	 * @param entity 当前行映射得到的实体
+	 */
+	void processEntity(T entity);
+
+}
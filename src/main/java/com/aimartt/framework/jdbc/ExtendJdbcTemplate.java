@@ -7,6 +7,11 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.jdbc.core.JdbcOperations;
 
+/**
+ * <p>扩展的 JDBC 查询模板，支持按动态条件（如 LIKE_userName）查询、分页和统计。</p>
+ * <p>动态条件默认将原查询包装为派生表后追加：select * from (sql) x where 1 = 1 AND ...；原查询中包含条件标记
+ * /&#42;where&#42;/ 或 /&#42;and&#42;/ 时，条件直接插入标记处，排序插入 /&#42;orderby&#42;/ 标记处，便于优化器使用索引。</p>
+ */
 public interface ExtendJdbcTemplate extends JdbcOperations {
 
 	/**
@@ -65,6 +70,20 @@ public interface ExtendJdbcTemplate extends JdbcOperations {
 	public <T> List<T> queryForList(Class<T> transClass, String sql, Map<String, Object> conditions,
 			Map<String, Boolean> orders);
 
+	/**
+	 * <p>按动态查询条件获取数据集合，可指定结果缓存等查询选项。</p>
+	 * <p>注意：动态条件key必须在查询SQL语句中存在</p>
+	 * <pre>SELECT 字段1,...字段n FROM 表名</pre>
+	 * @param transClass 返回对象类型
+	 * @param sql sql语句
+	 * @param conditions 动态条件（按键值动态添加条件）
+	 * @param orders 动态排序（true: 正序, false: 倒序）
+	 * @param options 查询选项（可为空，未设置的选项使用模板默认值）
+	 * @return
+	 */
+	public <T> List<T> queryForList(Class<T> transClass, String sql, Map<String, Object> conditions,
+			Map<String, Boolean> orders, QueryOptions options);
+
 	/**
 	 * <p>按可变参数条件获取数据分页数据。</p>
 	 * <ul>
@@ -122,4 +141,131 @@ public interface ExtendJdbcTemplate extends JdbcOperations {
 	public <T> Page<T> queryForPage(Class<T> transClass, String sql, Map<String, Object> conditions, Pageable pageable,
 			Map<String, Boolean> orders);
 
+	/**
+	 * <p>按动态查询条件获取数据分页数据，可指定分页方式等查询选项。</p>
+	 * <p>注意：动态条件key必须在查询SQL语句中存在</p>
+	 * <pre>SELECT 字段1,...字段n FROM 表名</pre>
+	 * @param transClass 返回对象类型
+	 * @param sql sql语句
+	 * @param conditions 动态条件（按键值动态添加条件）
+	 * @param pageable 分页对象
+	 * @param orders 动态排序（true: 正序, false: 倒序）
+	 * @param options 查询选项（可为空，未设置的选项使用模板默认值）
+	 * @return
+	 */
+	public <T> Page<T> queryForPage(Class<T> transClass, String sql, Map<String, Object> conditions, Pageable pageable,
+			Map<String, Boolean> orders, QueryOptions options);
+
+	/**
+	 * <p>按可变参数逐条处理查询结果，结果不会被收集为集合。</p>
+	 * <p>使用流式结果集逐行读取，内存占用与结果集大小无关；处理期间当前连接不能执行其它查询。</p>
+	 * <ul>
+	 * <li>SELECT 字段1,...,字段n FROM 表名 WHERE 字段1 = ? AND ... 字段n = ?</li>
+	 * <li>SELECT * FROM 表名 WHERE 字段1 = ? AND ... 字段n = ?</li>
+	 * </ul>
+	 * @param transClass 返回对象类型
+	 * @param sql sql语句
+	 * @param handler 结果实体处理器
+	 * @param object 参数数组（不存在条件，可为空）
+	 */
+	public <T> void queryForEach(Class<T> transClass, String sql, EntityCallbackHandler<T> handler, Object... object);
+
+	/**
+	 * <p>按动态查询条件逐条处理查询结果，结果不会被收集为集合。</p>
+	 * <p>使用流式结果集逐行读取，内存占用与结果集大小无关；处理期间当前连接不能执行其它查询。</p>
+	 * <p>注意：动态条件key必须在查询SQL语句中存在</p>
+	 * <pre>SELECT 字段1,...字段n FROM 表名</pre>
+	 * @param transClass 返回对象类型
+	 * @param sql sql语句
+	 * @param conditions 动态条件（按键值动态添加条件）
+	 * @param orders 动态排序（true: 正序, false: 倒序）
+	 * @param handler 结果实体处理器
+	 */
+	public <T> void queryForEach(Class<T> transClass, String sql, Map<String, Object> conditions,
+			Map<String, Boolean> orders, EntityCallbackHandler<T> handler);
+
+	/**
+	 * <p>按可变参数获取流式查询结果迭代器。</p>
+	 * <p>迭代器持有连接和流式结果集，遍历结束时自动关闭，提前结束时必须调用 {@link CloseableIterator#close()}。</p>
+	 * @param transClass 返回对象类型
+	 * @param sql sql语句
+	 * @param object 参数数组（不存在条件，可为空）
+	 * @return
+	 */
+	public <T> CloseableIterator<T> queryForIterator(Class<T> transClass, String sql, Object... object);
+
+	/**
+	 * <p>按动态查询条件获取流式查询结果迭代器。</p>
+	 * <p>迭代器持有连接和流式结果集，遍历结束时自动关闭，提前结束时必须调用 {@link CloseableIterator#close()}。</p>
+	 * <p>注意：动态条件key必须在查询SQL语句中存在</p>
+	 * <pre>SELECT 字段1,...字段n FROM 表名</pre>
+	 * @param transClass 返回对象类型
+	 * @param sql sql语句
+	 * @param conditions 动态条件（按键值动态添加条件）
+	 * @param orders 动态排序（true: 正序, false: 倒序）
+	 * @return
+	 */
+	public <T> CloseableIterator<T> queryForIterator(Class<T> transClass, String sql, Map<String, Object> conditions,
+			Map<String, Boolean> orders);
+
+	/**
+	 * <p>按动态查询条件获取键集分页数据。</p>
+	 * <p>按上一页最后一行的排序键定位下一页（WHERE (k1, k2) &gt; (?, ?) ORDER BY k1, k2 LIMIT n），
+	 * 不使用偏移量，翻页深度不影响查询开销；不统计总数。</p>
+	 * <p>注意：动态条件key和排序字段必须在查询SQL语句中存在，最后一个排序字段须唯一（如主键），排序字段的值不能为空</p>
+	 * <pre>SELECT 字段1,...字段n FROM 表名</pre>
+	 * @param transClass 返回对象类型
+	 * @param sql sql语句
+	 * @param conditions 动态条件（按键值动态添加条件）
+	 * @param orders 排序字段（true: 正序, false: 倒序），不能为空
+	 * @param size 每页数据量
+	 * @param token 上一页返回的分页标记，第一页为 null
+	 * @return
+	 */
+	public <T> KeysetSlice<T> queryForKeysetPage(Class<T> transClass, String sql, Map<String, Object> conditions,
+			Map<String, Boolean> orders, int size, String token);
+
+	/**
+	 * <p>批量插入实体，按批生成多行插入语句。</p>
+	 * <pre>INSERT INTO 表名 (字段1,...字段n) VALUES (?,...?), (?,...?)</pre>
+	 * <p>写入实体中可读写且未标注 @Transient 的属性，字段名由属性名转换（如 userName 对应 user_name），属性值为空时写入 NULL。
+	 * 写入后清除该表的分页总数缓存。</p>
+	 * @param table 表名
+	 * @param entities 实体集合（同一类型）
+	 * @return 每批影响的行数
+	 */
+	public int[] batchInsert(String table, List<?> entities);
+
+	/**
+	 * <p>批量按主键更新实体的全部属性，按批以 JDBC 批处理执行。</p>
+	 * <pre>UPDATE 表名 SET 字段1 = ?,...字段n = ? WHERE 主键 = ?</pre>
+	 * @param table 表名
+	 * @param entities 实体集合（同一类型）
+	 * @param keyProperty 主键属性名，如 id
+	 * @return 每批影响的行数
+	 */
+	public int[] batchUpdate(String table, List<?> entities, String keyProperty);
+
+	/**
+	 * <p>批量插入实体，主键或唯一键冲突时更新，按批生成多行插入语句。</p>
+	 * <pre>INSERT INTO 表名 (字段1,...字段n) VALUES (?,...?), (?,...?) ON DUPLICATE KEY UPDATE 字段1 = VALUES(字段1),...</pre>
+	 * @param table 表名
+	 * @param entities 实体集合（同一类型）
+	 * @param updateProperties 冲突时更新的属性，为空时更新全部属性
+	 * @return 每批影响的行数（MySQL 中插入的行计 1，更新的行计 2）
+	 */
+	public int[] upsert(String table, List<?> entities, String... updateProperties);
+
+	/**
+	 * <p>清除分页总数缓存，写入数据后调用以避免翻页时使用过期的总数。</p>
+	 * @param tables 涉及的表名，为空时清除全部缓存
+	 */
+	public void invalidateCounts(String... tables);
+
+	/**
+	 * <p>清除涉及指定表的分页总数缓存和查询结果缓存。通过本模板的 update、batchUpdate、batchInsert、upsert 写入数据时自动调用。</p>
+	 * @param tables 表名，为空时清除全部缓存
+	 */
+	public void invalidateTables(String... tables);
+
 }
\ No newline at end of file
@@ -0,0 +1,32 @@
+package com.aimartt.framework.jdbc;
+
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+
+/**
+ * <p>键集分页结果。</p>
+ * <p>不统计总数，只返回当前页数据和下一页的分页标记；分页标记为空时表示没有下一页。</p>
+ * @param <T> 实体类型
+ */
+public class KeysetSlice<T> extends SliceImpl<T> {
+
+	private static final long serialVersionUID = 1L;
+
+	private final String nextToken;
+
+	public KeysetSlice(List<T> content, Pageable pageable, String nextToken) {
+		super(content, pageable, nextToken != null);
+		this.nextToken = nextToken;
+	}
+
+	/**
+	 * <p>获取下一页的分页标记。</p>
+	 * @return 没有下一页时返回 null
+	 */
+	public String getNextToken() {
+		return nextToken;
+	}
+
+}
@@ -0,0 +1,18 @@
+package com.aimartt.framework.jdbc;
+
+/**
+ * <p>分页查询方式。</p>
+ */
+public enum PagingStrategy {
+
+	/** 偏移量分页：select * from (sql) x ... limit a, b */
+	OFFSET,
+
+	/**
+	 * 延迟关联分页：先按条件、排序和偏移量只查询主键（尽量走覆盖索引），再关联回原查询获取当前页的完整数据，
+	 * 避免为被跳过的行读取整行数据。要求查询结果中存在唯一的主键列。原查询不能合并为派生表时（GROUP BY、DISTINCT 等）
+	 * 改用偏移量分页，除非通过 {@link QueryOptions#setJoinTable(String)} 指定关联表。
+	 */
+	DEFERRED_JOIN;
+
+}
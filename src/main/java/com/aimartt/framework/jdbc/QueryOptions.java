@@ -0,0 +1,150 @@
+package com.aimartt.framework.jdbc;
+
+/**
+ * <p>单次查询选项，未设置的选项使用查询模板的默认值。</p>
+ */
+public class QueryOptions {
+
+	private PagingStrategy pagingStrategy;
+
+	private String keyColumn;
+
+	private String joinTable;
+
+	private CountStrategy countStrategy;
+
+	private Integer countLimit;
+
+	private Boolean concurrentCount;
+
+	private String[] cacheTables;
+
+	private Boolean coalesce;
+
+	/**
+	 * <p>创建使用延迟关联分页的查询选项。</p>
+	 * @param keyColumn 主键列名
+	 * @return
+	 */
+	public static QueryOptions deferredJoin(String keyColumn) {
+		QueryOptions options = new QueryOptions();
+		options.setPagingStrategy(PagingStrategy.DEFERRED_JOIN);
+		options.setKeyColumn(keyColumn);
+		return options;
+	}
+
+	/**
+	 * <p>创建使用延迟关联分页的查询选项，主键查询后关联回指定的表。</p>
+	 * @param joinTable 关联表，查询结果须为该表的列
+	 * @param keyColumn 主键列名
+	 * @return
+	 */
+	public static QueryOptions deferredJoin(String joinTable, String keyColumn) {
+		QueryOptions options = deferredJoin(keyColumn);
+		options.setJoinTable(joinTable);
+		return options;
+	}
+
+	/**
+	 * <p>创建缓存查询结果的查询选项，查询模板须设置结果缓存。</p>
+	 * @param tables 查询涉及的表，写入这些表时清除缓存的结果
+	 * @return
+	 */
+	public static QueryOptions cached(String... tables) {
+		QueryOptions options = new QueryOptions();
+		options.setCacheTables(tables);
+		return options;
+	}
+
+	public PagingStrategy getPagingStrategy() {
+		return pagingStrategy;
+	}
+
+	/**
+	 * @param pagingStrategy 分页方式
+	 */
+	public void setPagingStrategy(PagingStrategy pagingStrategy) {
+		this.pagingStrategy = pagingStrategy;
+	}
+
+	public String getKeyColumn() {
+		return keyColumn;
+	}
+
+	/**
+	 * @param keyColumn 延迟关联分页使用的主键列名
+	 */
+	public void setKeyColumn(String keyColumn) {
+		this.keyColumn = keyColumn;
+	}
+
+	public String getJoinTable() {
+		return joinTable;
+	}
+
+	/**
+	 * <p>延迟关联分页时关联回的表，未设置时关联回原查询。</p>
+	 * <p>关联回原查询时，原查询含 GROUP BY、DISTINCT、LIMIT、UNION、HAVING 会使 MySQL 物化其完整结果，
+	 * 这类查询不使用延迟关联分页；MySQL 5.6 总是物化派生表，应设置关联表。</p>
+	 * @param joinTable 关联表，查询结果须为该表的列
+	 */
+	public void setJoinTable(String joinTable) {
+		this.joinTable = joinTable;
+	}
+
+	public CountStrategy getCountStrategy() {
+		return countStrategy;
+	}
+
+	/**
+	 * @param countStrategy 总数统计方式
+	 */
+	public void setCountStrategy(CountStrategy countStrategy) {
+		this.countStrategy = countStrategy;
+	}
+
+	public Integer getCountLimit() {
+		return countLimit;
+	}
+
+	/**
+	 * @param countLimit 限量统计的上限
+	 */
+	public void setCountLimit(Integer countLimit) {
+		this.countLimit = countLimit;
+	}
+
+	public Boolean getConcurrentCount() {
+		return concurrentCount;
+	}
+
+	/**
+	 * @param concurrentCount 是否并发执行总数统计和分页数据查询
+	 */
+	public void setConcurrentCount(Boolean concurrentCount) {
+		this.concurrentCount = concurrentCount;
+	}
+
+	public String[] getCacheTables() {
+		return cacheTables;
+	}
+
+	/**
+	 * @param cacheTables 查询涉及的表，不为空时缓存查询结果，写入这些表时清除缓存的结果
+	 */
+	public void setCacheTables(String[] cacheTables) {
+		this.cacheTables = cacheTables;
+	}
+
+	public Boolean getCoalesce() {
+		return coalesce;
+	}
+
+	/**
+	 * @param coalesce 是否与相同的并发查询共享结果，查询模板须设置查询合并
+	 */
+	public void setCoalesce(Boolean coalesce) {
+		this.coalesce = coalesce;
+	}
+
+}
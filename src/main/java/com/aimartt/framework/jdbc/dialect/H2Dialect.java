@@ -0,0 +1,50 @@
+package com.aimartt.framework.jdbc.dialect;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>H2 方言，用于在进程内运行完整的查询路径（本地性能测试、基准测试）。</p>
+ * <p>数据库须以 MySQL 兼容模式打开（连接串加 ;MODE=MySQL），多行插入冲突更新沿用 MySQL 的 on duplicate key update 语法。</p>
+ */
+public class H2Dialect extends MySqlDialect {
+
+	/** 流式查询的读取行数，H2 不支持 MySQL 的逐行读取标记 */
+	public static final int STREAMING_FETCH_SIZE = 1000;
+
+	static final String PAGE_CLAUSE = " limit ? offset ? ";
+
+	@Override
+	public String pageClause() {
+		return PAGE_CLAUSE;
+	}
+
+	@Override
+	public Object[] pageParams(int offset, int size) {
+		return new Object[] { size, offset };
+	}
+
+	/**
+	 * <p>H2 的执行计划不包含估算行数。</p>
+	 */
+	@Override
+	public String explainQuery(String sql) {
+		return null;
+	}
+
+	@Override
+	public long estimateRows(List<Map<String, Object>> plan) {
+		return -1;
+	}
+
+	@Override
+	public int streamingFetchSize() {
+		return STREAMING_FETCH_SIZE;
+	}
+
+	@Override
+	public int maxParameters() {
+		return Integer.MAX_VALUE;
+	}
+
+}
@@ -0,0 +1,135 @@
+package com.aimartt.framework.jdbc.dialect;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.util.StringUtils;
+
+/**
+ * <p>MySQL 方言。</p>
+ */
+public class MySqlDialect implements SqlDialect {
+
+	/** MySQL 流式结果集的读取行数，驱动逐行读取结果 */
+	public static final int STREAMING_FETCH_SIZE = Integer.MIN_VALUE;
+
+	/** 预编译语句的最大参数个数 */
+	public static final int MAXIMUM_PARAMETERS = 65535;
+
+	static final String PAGE_CLAUSE = " limit ?, ? ";
+
+	static final String LIMIT_CLAUSE = " limit ? ";
+
+	static final String COUNT_QUERY_STRING = " select count(*) from (%s) c ";
+
+	static final String EXPLAIN_QUERY_STRING = " explain %s ";
+
+	static final String INSERT_STATEMENT = " insert into %s (%s) values ";
+
+	static final String UPSERT_CLAUSE = " on duplicate key update ";
+
+	@Override
+	public String pageClause() {
+		return PAGE_CLAUSE;
+	}
+
+	@Override
+	public Object[] pageParams(int offset, int size) {
+		return new Object[] { offset, size };
+	}
+
+	@Override
+	public String limitClause() {
+		return LIMIT_CLAUSE;
+	}
+
+	@Override
+	public String countQuery(String sql) {
+		return String.format(COUNT_QUERY_STRING, sql);
+	}
+
+	@Override
+	public String explainQuery(String sql) {
+		return String.format(EXPLAIN_QUERY_STRING, sql);
+	}
+
+	/**
+	 * <p>取执行计划各行 rows 列的最大值。</p>
+	 */
+	@Override
+	public long estimateRows(List<Map<String, Object>> plan) {
+		long rows = -1;
+		for (Map<String, Object> row : plan) {
+			Object value = row.get("rows");
+			if (value instanceof Number) {
+				rows = Math.max(rows, ((Number) value).longValue());
+			}
+		}
+		return rows;
+	}
+
+	/**
+	 * <p>检查执行计划各行：type 为 ALL 时为全表扫描，Extra 含 Using filesort、Using temporary 时为文件排序、临时表。</p>
+	 */
+	@Override
+	public List<String> planWarnings(List<Map<String, Object>> plan) {
+		List<String> warnings = new ArrayList<String>();
+		for (Map<String, Object> row : plan) {
+			String table = String.valueOf(column(row, "table"));
+			if ("ALL".equalsIgnoreCase(String.valueOf(column(row, "type")))) {
+				warnings.add(String.format("全表扫描[%s]", table));
+			}
+			String extra = String.valueOf(column(row, "Extra"));
+			if (extra.contains("Using filesort")) {
+				warnings.add(String.format("文件排序[%s]", table));
+			}
+			if (extra.contains("Using temporary")) {
+				warnings.add(String.format("临时表[%s]", table));
+			}
+		}
+		return warnings;
+	}
+
+	@Override
+	public int streamingFetchSize() {
+		return STREAMING_FETCH_SIZE;
+	}
+
+	@Override
+	public int maxParameters() {
+		return MAXIMUM_PARAMETERS;
+	}
+
+	@Override
+	public String insertStatement(String table, String[] columns) {
+		return String.format(INSERT_STATEMENT, table, StringUtils.arrayToDelimitedString(columns, ", "));
+	}
+
+	@Override
+	public String upsertClause(String[] columns) {
+		StringBuilder clause = new StringBuilder(UPSERT_CLAUSE);
+		for (int i = 0; i < columns.length; i++) {
+			clause.append((i > 0) ? ", " : "").append(columns[i]).append(" = values(").append(columns[i]).append(")");
+		}
+		return clause.toString();
+	}
+
+	@Override
+	public boolean supportsRowValueComparison() {
+		return true;
+	}
+
+	/**
+	 * 按列名取值，忽略大小写
+	 */
+	private static Object column(Map<String, Object> row, String name) {
+		for (Map.Entry<String, Object> entry : row.entrySet()) {
+			if (entry.getKey().equalsIgnoreCase(name)) {
+				return entry.getValue();
+			}
+		}
+		return null;
+	}
+
+}
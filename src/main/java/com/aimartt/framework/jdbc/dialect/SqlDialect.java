@@ -0,0 +1,93 @@
+package com.aimartt.framework.jdbc.dialect;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>数据库方言，提供查询模板中与数据库相关的语句片段和驱动设置。</p>
+ * <p>动态条件、排序和统计语句的包装使用标准 SQL，由查询模板生成；分页、限量、执行计划、流式读取、多行插入等由方言提供。</p>
+ */
+public interface SqlDialect {
+
+	/**
+	 * <p>分页子句，追加在排序之后，参数由 {@link #pageParams(int, int)} 提供。</p>
+	 * @return 如 limit ?, ?
+	 */
+	String pageClause();
+
+	/**
+	 * <p>分页参数，顺序与 {@link #pageClause()} 中的占位符一致。</p>
+	 * @param offset 偏移量
+	 * @param size 每页数据量
+	 * @return
+	 */
+	Object[] pageParams(int offset, int size);
+
+	/**
+	 * <p>限量子句，只有一个行数参数。</p>
+	 * @return 如 limit ?
+	 */
+	String limitClause();
+
+	/**
+	 * <p>统计行查询的总数。</p>
+	 * @param sql 行查询语句
+	 * @return
+	 */
+	String countQuery(String sql);
+
+	/**
+	 * <p>获取查询执行计划的语句。</p>
+	 * @param sql 查询语句
+	 * @return 不支持估算行数时返回 null
+	 */
+	String explainQuery(String sql);
+
+	/**
+	 * <p>从执行计划中取估算行数。</p>
+	 * @param plan {@link #explainQuery(String)} 的查询结果
+	 * @return 无法估算时返回 -1
+	 */
+	long estimateRows(List<Map<String, Object>> plan);
+
+	/**
+	 * <p>执行计划中需要关注的问题，如全表扫描、文件排序。</p>
+	 * @param plan {@link #explainQuery(String)} 的查询结果
+	 * @return 没有问题时返回空集合
+	 */
+	List<String> planWarnings(List<Map<String, Object>> plan);
+
+	/**
+	 * <p>流式查询使用的读取行数。</p>
+	 * @return
+	 */
+	int streamingFetchSize();
+
+	/**
+	 * <p>单条语句允许的最大参数个数。</p>
+	 * @return
+	 */
+	int maxParameters();
+
+	/**
+	 * <p>多行插入语句的前半部分，其后依次追加每行的 (?, ...)。</p>
+	 * @param table 表名
+	 * @param columns 字段名
+	 * @return 如 insert into 表名 (字段1, 字段2) values
+	 */
+	String insertStatement(String table, String[] columns);
+
+	/**
+	 * <p>插入时主键或唯一键冲突则更新的子句，追加在多行插入语句之后。</p>
+	 * @param columns 冲突时更新的字段
+	 * @return
+	 */
+	String upsertClause(String[] columns);
+
+	/**
+	 * <p>键集分页是否使用行值比较 (k1, k2) &gt; (?, ?)，否则展开为 (k1 &gt; ?) OR (k1 = ? AND k2 &gt; ?)。</p>
+	 * @return
+	 */
+	boolean supportsRowValueComparison();
+
+}
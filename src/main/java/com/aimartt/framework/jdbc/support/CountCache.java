@@ -0,0 +1,152 @@
+package com.aimartt.framework.jdbc.support;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+import org.springframework.util.StringUtils;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+
+/**
+ * <p>分页总数缓存。</p>
+ * <p>按规范化的统计 SQL（合并空白字符）和绑定参数缓存总数，翻页时复用第一页统计的总数，不再重复执行 count(*)。</p>
+ * <p>缓存在过期时间内可能与实际数据不一致，写入数据后可调用 {@link #invalidate(String...)} 清除相关表的缓存。</p>
+ */
+public class CountCache {
+
+	/** 默认过期时间（秒） */
+	public static final long DEFAULT_EXPIRE_SECONDS = 60;
+	/** 默认最大缓存数量 */
+	public static final long DEFAULT_MAXIMUM_SIZE = 1000;
+
+	private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+	private final Cache<CountKey, Long> cache;
+
+	/** 每次清除缓存时递增，统计期间发生清除的总数不再缓存 */
+	private final AtomicLong generation = new AtomicLong();
+
+	public CountCache() {
+		this(DEFAULT_EXPIRE_SECONDS, DEFAULT_MAXIMUM_SIZE);
+	}
+
+	/**
+	 * @param expireSeconds 过期时间（秒）
+	 * @param maximumSize 最大缓存数量
+	 */
+	public CountCache(long expireSeconds, long maximumSize) {
+		this.cache = CacheBuilder.newBuilder().expireAfterWrite(expireSeconds, TimeUnit.SECONDS)
+				.maximumSize(maximumSize).recordStats().build();
+	}
+
+	/**
+	 * <p>获取缓存的总数。</p>
+	 * @param sql 统计语句
+	 * @param params 绑定参数
+	 * @return 未缓存时返回 null
+	 */
+	Long get(String sql, Object[] params) {
+		return cache.getIfPresent(new CountKey(sql, params));
+	}
+
+	/**
+	 * <p>当前清除代数，统计前获取，缓存总数时传入。</p>
+	 * @return
+	 */
+	long generation() {
+		return generation.get();
+	}
+
+	/**
+	 * <p>缓存总数。统计开始后发生过清除时不缓存，避免清除前统计的旧总数在清除后写入。</p>
+	 * @param sql 统计语句
+	 * @param params 绑定参数
+	 * @param count 总数
+	 * @param current 统计前获取的清除代数
+	 */
+	void put(String sql, Object[] params, long count, long current) {
+		CountKey key = new CountKey(sql, params);
+		Long value = count;
+		cache.put(key, value);
+		// 清除可能在写入前执行，写入后再次检查
+		if (generation.get() != current) {
+			cache.asMap().remove(key, value);
+		}
+	}
+
+	/**
+	 * <p>清除涉及指定表的缓存，未指定表时清除全部缓存。</p>
+	 * @param tables 表名
+	 */
+	public void invalidate(String... tables) {
+		if (tables == null || tables.length == 0) {
+			invalidateAll();
+			return;
+		}
+		generation.incrementAndGet();
+		Pattern[] patterns = new Pattern[tables.length];
+		for (int i = 0; i < tables.length; i++) {
+			patterns[i] = Pattern.compile("\\b" + Pattern.quote(tables[i]) + "\\b", Pattern.CASE_INSENSITIVE);
+		}
+		for (Iterator<CountKey> it = cache.asMap().keySet().iterator(); it.hasNext();) {
+			String sql = it.next().sql;
+			for (Pattern pattern : patterns) {
+				if (pattern.matcher(sql).find()) {
+					it.remove();
+					break;
+				}
+			}
+		}
+	}
+
+	/**
+	 * <p>清除全部缓存。</p>
+	 */
+	public void invalidateAll() {
+		generation.incrementAndGet();
+		cache.invalidateAll();
+	}
+
+	/**
+	 * <p>缓存命中统计。</p>
+	 * @return
+	 */
+	public CacheStats stats() {
+		return cache.stats();
+	}
+
+	private static final class CountKey {
+		private final String sql;
+		private final Object[] params;
+		private final int hash;
+
+		CountKey(String sql, Object[] params) {
+			this.sql = WHITESPACE.matcher(StringUtils.trimWhitespace(sql)).replaceAll(" ");
+			this.params = (params != null) ? params : new Object[0];
+			this.hash = this.sql.hashCode() * 31 + Arrays.deepHashCode(this.params);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof CountKey)) {
+				return false;
+			}
+			CountKey that = (CountKey) obj;
+			return sql.equals(that.sql) && Arrays.deepEquals(params, that.params);
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+	}
+
+}
@@ -0,0 +1,102 @@
+package com.aimartt.framework.jdbc.support;
+
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.persistence.Transient;
+
+import org.springframework.beans.BeanUtils;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.util.ConcurrentReferenceHashMap;
+import org.springframework.util.ReflectionUtils;
+
+import com.aimartt.framework.util.FastMethodInvoker;
+
+/**
+ * <p>实体属性到表字段的映射，用于批量写入。</p>
+ * <p>映射可读写且未标注 {@link Transient} 的属性，字段名按 {@link SearchFilter#coverdColumnName(String)} 由属性名转换；
+ * 映射按实体类型缓存，属性值通过预绑定的 getter 读取。</p>
+ */
+class EntityColumns {
+
+	private static final ConcurrentReferenceHashMap<Class<?>, EntityColumns> COLUMNS = new ConcurrentReferenceHashMap<Class<?>, EntityColumns>();
+
+	final String[] properties;
+	final String[] columns;
+	private final FastMethodInvoker[] readers;
+
+	private EntityColumns(Class<?> entityClass) {
+		List<String> properties = new ArrayList<String>();
+		List<FastMethodInvoker> readers = new ArrayList<FastMethodInvoker>();
+		for (PropertyDescriptor pd : BeanUtils.getPropertyDescriptors(entityClass)) {
+			if (pd.getReadMethod() == null || pd.getWriteMethod() == null
+					|| pd.getReadMethod().isAnnotationPresent(Transient.class)) {
+				continue;
+			}
+			Field field = ReflectionUtils.findField(entityClass, pd.getName());
+			if (field != null && field.isAnnotationPresent(Transient.class)) {
+				continue;
+			}
+			properties.add(pd.getName());
+			readers.add(FastMethodInvoker.create(pd.getReadMethod()));
+		}
+		if (properties.isEmpty()) {
+			throw new InvalidDataAccessApiUsageException(String.format("实体[%s]没有可写入的属性!", entityClass.getName()));
+		}
+		this.properties = properties.toArray(new String[properties.size()]);
+		this.readers = readers.toArray(new FastMethodInvoker[readers.size()]);
+		this.columns = new String[this.properties.length];
+		for (int i = 0; i < columns.length; i++) {
+			columns[i] = SearchFilter.coverdColumnName(this.properties[i]);
+		}
+	}
+
+	/**
+	 * <p>获取实体类型的字段映射。</p>
+	 * @param entityClass
+	 * @return
+	 */
+	static EntityColumns forClass(Class<?> entityClass) {
+		EntityColumns columns = COLUMNS.get(entityClass);
+		if (columns == null) {
+			columns = new EntityColumns(entityClass);
+			COLUMNS.put(entityClass, columns);
+		}
+		return columns;
+	}
+
+	/**
+	 * <p>属性下标，属性不存在时抛出异常。</p>
+	 * @param property 属性名
+	 * @return
+	 */
+	int indexOf(String property) {
+		for (int i = 0; i < properties.length; i++) {
+			if (properties[i].equals(property)) {
+				return i;
+			}
+		}
+		throw new InvalidDataAccessApiUsageException(String.format("属性[%s]不存在或不可写入!", property));
+	}
+
+	/**
+	 * <p>读取属性值。</p>
+	 * @param entity
+	 * @param index 属性下标
+	 * @return
+	 */
+	Object getValue(Object entity, int index) {
+		try {
+			return readers[index].invoke(entity);
+		} catch (InvocationTargetException e) {
+			throw new InvalidDataAccessApiUsageException(String.format("读取属性[%s]失败!", properties[index]),
+					e.getTargetException());
+		} catch (IllegalAccessException e) {
+			throw new InvalidDataAccessApiUsageException(String.format("读取属性[%s]失败!", properties[index]), e);
+		}
+	}
+
+}
@@ -0,0 +1,364 @@
+package com.aimartt.framework.jdbc.support;
+
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.BeanUtils;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.core.convert.support.DefaultConversionService;
+import org.springframework.dao.DataRetrievalFailureException;
+import org.springframework.jdbc.core.BeanPropertyRowMapper;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ConcurrentReferenceHashMap;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.util.StringUtils;
+
+import com.aimartt.framework.util.FastMethodInvoker;
+
+/**
+ * <p>按列下标映射的实体行映射器，映射规则与 {@link BeanPropertyRowMapper} 一致（列名忽略大小写，下划线分隔的列名对应驼峰式属性）。</p>
+ * <p>列下标到属性的映射按“实体类型 + 结果集列名”缓存，同一查询形状只解析一次；每行按属性类型直接调用
+ * {@link ResultSet} 的对应取值方法，通过预绑定的 setter 赋值，不再经过 BeanWrapper。</p>
+ * <p>与 {@link BeanPropertyRowMapper} 不同，基本类型属性遇到 NULL 列值时保持默认值，不抛出异常。</p>
+ * @param <T> 实体类型
+ */
+public class EntityRowMapper<T> implements RowMapper<T> {
+
+	private static final ConcurrentReferenceHashMap<MappingKey, Mapping<?>> MAPPINGS = new ConcurrentReferenceHashMap<MappingKey, Mapping<?>>();
+
+	private static final ConcurrentReferenceHashMap<Class<?>, Map<String, PropertyDescriptor>> PROPERTIES = new ConcurrentReferenceHashMap<Class<?>, Map<String, PropertyDescriptor>>();
+
+	private static final ConversionService conversionService = new DefaultConversionService();
+
+	private final Class<T> mappedClass;
+
+	private Mapping<T> mapping;
+
+	/**
+	 * <p>创建行映射器，每次查询使用一个新实例。</p>
+	 * @param mappedClass 实体类型
+	 * @return
+	 */
+	public static <T> EntityRowMapper<T> newInstance(Class<T> mappedClass) {
+		return new EntityRowMapper<T>(mappedClass);
+	}
+
+	public EntityRowMapper(Class<T> mappedClass) {
+		this.mappedClass = mappedClass;
+	}
+
+	@Override
+	public T mapRow(ResultSet rs, int rowNum) throws SQLException {
+		if (mapping == null) {
+			mapping = getMapping(mappedClass, rs.getMetaData());
+		}
+		return mapping.mapRow(rs);
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <T> Mapping<T> getMapping(Class<T> mappedClass, ResultSetMetaData metaData) throws SQLException {
+		int columnCount = metaData.getColumnCount();
+		String[] columns = new String[columnCount];
+		for (int i = 0; i < columnCount; i++) {
+			columns[i] = JdbcUtils.lookupColumnName(metaData, i + 1);
+		}
+		MappingKey key = new MappingKey(mappedClass, columns);
+		Mapping<T> mapping = (Mapping<T>) MAPPINGS.get(key);
+		if (mapping == null) {
+			mapping = new Mapping<T>(mappedClass, columns);
+			MAPPINGS.put(key, mapping);
+		}
+		return mapping;
+	}
+
+	/**
+	 * <p>可写属性，按小写属性名和下划线分隔的小写属性名索引。</p>
+	 */
+	private static Map<String, PropertyDescriptor> getProperties(Class<?> mappedClass) {
+		Map<String, PropertyDescriptor> properties = PROPERTIES.get(mappedClass);
+		if (properties == null) {
+			properties = new HashMap<String, PropertyDescriptor>();
+			for (PropertyDescriptor pd : BeanUtils.getPropertyDescriptors(mappedClass)) {
+				if (pd.getWriteMethod() != null) {
+					properties.put(pd.getName().toLowerCase(), pd);
+					String underscoredName = underscoreName(pd.getName());
+					if (!pd.getName().toLowerCase().equals(underscoredName)) {
+						properties.put(underscoredName, pd);
+					}
+				}
+			}
+			PROPERTIES.put(mappedClass, properties);
+		}
+		return properties;
+	}
+
+	private static String underscoreName(String name) {
+		StringBuilder result = new StringBuilder(name.length() + 4);
+		for (int i = 0; i < name.length(); i++) {
+			char c = name.charAt(i);
+			if (Character.isUpperCase(c)) {
+				if (i > 0) {
+					result.append('_');
+				}
+				result.append(Character.toLowerCase(c));
+			} else {
+				result.append(c);
+			}
+		}
+		return result.toString();
+	}
+
+	/**
+	 * <p>映射缓存的键：实体类型 + 结果集列名。</p>
+	 */
+	private static final class MappingKey {
+		private final Class<?> mappedClass;
+		private final String[] columns;
+		private final int hash;
+
+		MappingKey(Class<?> mappedClass, String[] columns) {
+			this.mappedClass = mappedClass;
+			this.columns = columns;
+			this.hash = mappedClass.hashCode() * 31 + Arrays.hashCode(columns);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof MappingKey)) {
+				return false;
+			}
+			MappingKey that = (MappingKey) obj;
+			return mappedClass == that.mappedClass && Arrays.equals(columns, that.columns);
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+	}
+
+	/**
+	 * <p>解析后的映射：实体构造器和按列下标排列的属性赋值器。</p>
+	 */
+	private static final class Mapping<T> {
+		private final Constructor<T> constructor;
+		private final ColumnSetter[] setters;
+
+		Mapping(Class<T> mappedClass, String[] columns) {
+			try {
+				this.constructor = mappedClass.getDeclaredConstructor();
+			} catch (NoSuchMethodException e) {
+				throw new DataRetrievalFailureException(String.format("实体[%s]缺少无参构造方法!", mappedClass.getName()), e);
+			}
+			ReflectionUtils.makeAccessible(constructor);
+			Map<String, PropertyDescriptor> properties = getProperties(mappedClass);
+			List<ColumnSetter> setters = new ArrayList<ColumnSetter>(columns.length);
+			for (int i = 0; i < columns.length; i++) {
+				String column = StringUtils.delete(columns[i], " ").toLowerCase();
+				PropertyDescriptor pd = properties.get(column);
+				if (pd != null) {
+					setters.add(new ColumnSetter(i + 1, columns[i], pd));
+				}
+			}
+			this.setters = setters.toArray(new ColumnSetter[setters.size()]);
+		}
+
+		T mapRow(ResultSet rs) throws SQLException {
+			T entity;
+			try {
+				entity = constructor.newInstance();
+			} catch (Exception e) {
+				throw new DataRetrievalFailureException(String.format("实体[%s]实例化失败!", constructor
+						.getDeclaringClass().getName()), e);
+			}
+			for (ColumnSetter setter : setters) {
+				setter.set(rs, entity);
+			}
+			return entity;
+		}
+	}
+
+	/**
+	 * <p>单列赋值器。</p>
+	 */
+	private static final class ColumnSetter {
+		private final int index;
+		private final String column;
+		private final String property;
+		private final Class<?> type;
+		private final boolean primitive;
+		private final ColumnGetter getter;
+		private final FastMethodInvoker writer;
+
+		ColumnSetter(int index, String column, PropertyDescriptor pd) {
+			this.index = index;
+			this.column = column;
+			this.property = pd.getName();
+			this.primitive = pd.getPropertyType().isPrimitive();
+			this.type = ClassUtils.resolvePrimitiveIfNecessary(pd.getPropertyType());
+			this.getter = ColumnGetter.forType(type);
+			this.writer = FastMethodInvoker.create(pd.getWriteMethod());
+		}
+
+		void set(ResultSet rs, Object entity) throws SQLException {
+			Object value = getter.getValue(rs, index, type);
+			if (value == null && primitive) {
+				return;
+			}
+			try {
+				writer.invoke(entity, value);
+			} catch (InvocationTargetException e) {
+				throw new DataRetrievalFailureException(String.format("无法将列[%s]映射到属性[%s]", column, property),
+						e.getTargetException());
+			} catch (IllegalAccessException e) {
+				throw new DataRetrievalFailureException(String.format("无法将列[%s]映射到属性[%s]", column, property), e);
+			}
+		}
+	}
+
+	/**
+	 * <p>按属性类型选择的 {@link ResultSet} 取值方式，NULL 列值统一返回 null。</p>
+	 */
+	private enum ColumnGetter {
+		STRING {
+			@Override
+			Object getValue(ResultSet rs, int index, Class<?> type) throws SQLException {
+				return rs.getString(index);
+			}
+		},
+		BOOLEAN {
+			@Override
+			Object getValue(ResultSet rs, int index, Class<?> type) throws SQLException {
+				boolean value = rs.getBoolean(index);
+				return rs.wasNull() ? null : Boolean.valueOf(value);
+			}
+		},
+		BYTE {
+			@Override
+			Object getValue(ResultSet rs, int index, Class<?> type) throws SQLException {
+				byte value = rs.getByte(index);
+				return rs.wasNull() ? null : Byte.valueOf(value);
+			}
+		},
+		SHORT {
+			@Override
+			Object getValue(ResultSet rs, int index, Class<?> type) throws SQLException {
+				short value = rs.getShort(index);
+				return rs.wasNull() ? null : Short.valueOf(value);
+			}
+		},
+		INTEGER {
+			@Override
+			Object getValue(ResultSet rs, int index, Class<?> type) throws SQLException {
+				int value = rs.getInt(index);
+				return rs.wasNull() ? null : Integer.valueOf(value);
+			}
+		},
+		LONG {
+			@Override
+			Object getValue(ResultSet rs, int index, Class<?> type) throws SQLException {
+				long value = rs.getLong(index);
+				return rs.wasNull() ? null : Long.valueOf(value);
+			}
+		},
+		FLOAT {
+			@Override
+			Object getValue(ResultSet rs, int index, Class<?> type) throws SQLException {
+				float value = rs.getFloat(index);
+				return rs.wasNull() ? null : Float.valueOf(value);
+			}
+		},
+		DOUBLE {
+			@Override
+			Object getValue(ResultSet rs, int index, Class<?> type) throws SQLException {
+				double value = rs.getDouble(index);
+				return rs.wasNull() ? null : Double.valueOf(value);
+			}
+		},
+		BIG_DECIMAL {
+			@Override
+			Object getValue(ResultSet rs, int index, Class<?> type) throws SQLException {
+				return rs.getBigDecimal(index);
+			}
+		},
+		TIMESTAMP {
+			@Override
+			Object getValue(ResultSet rs, int index, Class<?> type) throws SQLException {
+				return rs.getTimestamp(index);
+			}
+		},
+		BYTES {
+			@Override
+			Object getValue(ResultSet rs, int index, Class<?> type) throws SQLException {
+				return rs.getBytes(index);
+			}
+		},
+		/** 其它类型：按 {@link JdbcUtils#getResultSetValue(ResultSet, int, Class)} 取值，类型不符时再做转换 */
+		OTHER {
+			@Override
+			Object getValue(ResultSet rs, int index, Class<?> type) throws SQLException {
+				Object value = JdbcUtils.getResultSetValue(rs, index, type);
+				if (value != null && !type.isInstance(value)) {
+					value = conversionService.convert(value, type);
+				}
+				return value;
+			}
+		};
+
+		abstract Object getValue(ResultSet rs, int index, Class<?> type) throws SQLException;
+
+		static ColumnGetter forType(Class<?> type) {
+			if (String.class == type) {
+				return STRING;
+			}
+			if (Boolean.class == type) {
+				return BOOLEAN;
+			}
+			if (Byte.class == type) {
+				return BYTE;
+			}
+			if (Short.class == type) {
+				return SHORT;
+			}
+			if (Integer.class == type) {
+				return INTEGER;
+			}
+			if (Long.class == type) {
+				return LONG;
+			}
+			if (Float.class == type) {
+				return FLOAT;
+			}
+			if (Double.class == type) {
+				return DOUBLE;
+			}
+			if (BigDecimal.class == type) {
+				return BIG_DECIMAL;
+			}
+			if (java.util.Date.class == type || Timestamp.class == type) {
+				return TIMESTAMP;
+			}
+			if (byte[].class == type) {
+				return BYTES;
+			}
+			return OTHER;
+		}
+	}
+
+}
@@ -0,0 +1,84 @@
+package com.aimartt.framework.jdbc.support;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+import com.google.common.collect.Lists;
+
+/**
+ * <p>IN / NOT IN 参数处理。</p>
+ * <p>参数去重后按 2 的幂次补齐（重复最后一个值，不改变查询结果），使不同个数的参数落在少数几种 SQL 形状上；
+ * 超过 {@link #CHUNK_SIZE} 的参数按块拆分，每块生成一个 IN 子句。</p>
+ */
+public final class InClause {
+
+	/** 单个 IN 子句的最大参数个数 */
+	public static final int CHUNK_SIZE = 1024;
+
+	private InClause() {
+	}
+
+	/**
+	 * <p>是否为多值参数（集合或数组）。</p>
+	 * @param value
+	 * @return
+	 */
+	public static boolean isMultiValued(Object value) {
+		return value instanceof Collection || value instanceof Object[];
+	}
+
+	/**
+	 * <p>将集合或数组转换为去重后的列表，保持原有顺序。</p>
+	 * @param value 集合或数组
+	 * @return
+	 */
+	public static List<Object> distinct(Object value) {
+		Collection<?> values = (value instanceof Object[]) ? Arrays.asList((Object[]) value) : (Collection<?>) value;
+		return new ArrayList<Object>(new LinkedHashSet<Object>(values));
+	}
+
+	/**
+	 * <p>补齐后的参数个数：不超过 {@link #CHUNK_SIZE} 时取不小于 size 的 2 的幂次，否则取 {@link #CHUNK_SIZE} 的整数倍。</p>
+	 * @param size 参数个数
+	 * @return
+	 */
+	public static int bucket(int size) {
+		if (size <= 1) {
+			return size;
+		}
+		if (size <= CHUNK_SIZE) {
+			return Integer.highestOneBit(size - 1) << 1;
+		}
+		return (size + CHUNK_SIZE - 1) / CHUNK_SIZE * CHUNK_SIZE;
+	}
+
+	/**
+	 * <p>去重并补齐参数：重复最后一个值直到参数个数达到 {@link #bucket(int)}。</p>
+	 * @param value 集合或数组
+	 * @return
+	 */
+	public static List<Object> pad(Object value) {
+		List<Object> values = distinct(value);
+		int size = bucket(values.size());
+		if (size > values.size()) {
+			Object last = values.get(values.size() - 1);
+			while (values.size() < size) {
+				values.add(last);
+			}
+		}
+		return values;
+	}
+
+	/**
+	 * <p>按 {@link #CHUNK_SIZE} 拆分参数。</p>
+	 * @param values
+	 * @return
+	 */
+	public static <T> List<List<T>> chunk(List<T> values) {
+		return Lists.partition(values, CHUNK_SIZE);
+	}
+
+}
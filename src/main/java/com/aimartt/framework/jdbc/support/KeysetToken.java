@@ -0,0 +1,156 @@
+package com.aimartt.framework.jdbc.support;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.Date;
+
+import org.apache.commons.codec.binary.Base64;
+
+import com.aimartt.framework.exception.BusinessException;
+
+/**
+ * <p>键集分页标记的编解码。</p>
+ * <p>分页标记为上一页最后一行排序键值的类型化二进制编码（URL 安全的 Base64），不使用 Java 序列化；
+ * 标记中带有排序规则的摘要，排序规则变化后旧标记将被拒绝。</p>
+ */
+final class KeysetToken {
+
+	private static final byte VERSION = 1;
+
+	private static final byte INTEGER = 'I';
+	private static final byte LONG = 'J';
+	private static final byte DOUBLE = 'F';
+	private static final byte DECIMAL = 'D';
+	private static final byte STRING = 'S';
+	private static final byte BOOLEAN = 'Z';
+	private static final byte TIMESTAMP = 'T';
+	private static final byte DATE = 'd';
+	private static final byte TIME = 't';
+
+	/**
+	 * <p>编码分页标记。</p>
+	 * @param orderSignature 排序规则
+	 * @param values 排序键值
+	 * @return
+	 */
+	static String encode(String orderSignature, Object[] values) {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+		DataOutputStream output = new DataOutputStream(bytes);
+		try {
+			output.writeByte(VERSION);
+			output.writeInt(orderSignature.hashCode());
+			output.writeByte(values.length);
+			for (Object value : values) {
+				writeValue(output, value);
+			}
+			output.flush();
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+		return Base64.encodeBase64URLSafeString(bytes.toByteArray());
+	}
+
+	/**
+	 * <p>解码分页标记。</p>
+	 * @param token 分页标记
+	 * @param orderSignature 排序规则
+	 * @param length 排序键数量
+	 * @return 排序键值
+	 */
+	static Object[] decode(String token, String orderSignature, int length) {
+		DataInputStream input = new DataInputStream(new ByteArrayInputStream(Base64.decodeBase64(token)));
+		try {
+			if (input.readByte() != VERSION || input.readInt() != orderSignature.hashCode()
+					|| input.readByte() != length) {
+				throw new BusinessException("分页标记与查询排序不匹配!");
+			}
+			Object[] values = new Object[length];
+			for (int i = 0; i < length; i++) {
+				values[i] = readValue(input);
+			}
+			if (input.read() != -1) {
+				throw new BusinessException("分页标记无效!");
+			}
+			return values;
+		} catch (IOException e) {
+			throw new BusinessException("分页标记无效!", e);
+		}
+	}
+
+	private static void writeValue(DataOutputStream output, Object value) throws IOException {
+		if (value == null) {
+			throw new BusinessException("排序字段的值为空，无法用于键集分页!");
+		} else if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+			output.writeByte(INTEGER);
+			output.writeInt(((Number) value).intValue());
+		} else if (value instanceof Long) {
+			output.writeByte(LONG);
+			output.writeLong((Long) value);
+		} else if (value instanceof Double || value instanceof Float) {
+			output.writeByte(DOUBLE);
+			output.writeDouble(((Number) value).doubleValue());
+		} else if (value instanceof BigDecimal || value instanceof BigInteger) {
+			output.writeByte(DECIMAL);
+			output.writeUTF(value.toString());
+		} else if (value instanceof String) {
+			output.writeByte(STRING);
+			output.writeUTF((String) value);
+		} else if (value instanceof Boolean) {
+			output.writeByte(BOOLEAN);
+			output.writeBoolean((Boolean) value);
+		} else if (value instanceof java.sql.Date) {
+			output.writeByte(DATE);
+			output.writeLong(((Date) value).getTime());
+		} else if (value instanceof Time) {
+			output.writeByte(TIME);
+			output.writeLong(((Date) value).getTime());
+		} else if (value instanceof Date) {
+			Timestamp timestamp = (value instanceof Timestamp) ? (Timestamp) value : new Timestamp(
+					((Date) value).getTime());
+			output.writeByte(TIMESTAMP);
+			output.writeLong(timestamp.getTime());
+			output.writeInt(timestamp.getNanos());
+		} else {
+			throw new BusinessException(String.format("排序字段类型[%s]不支持键集分页!", value.getClass().getName()));
+		}
+	}
+
+	private static Object readValue(DataInputStream input) throws IOException {
+		byte type = input.readByte();
+		switch (type) {
+			case INTEGER:
+				return input.readInt();
+			case LONG:
+				return input.readLong();
+			case DOUBLE:
+				return input.readDouble();
+			case DECIMAL:
+				return new BigDecimal(input.readUTF());
+			case STRING:
+				return input.readUTF();
+			case BOOLEAN:
+				return input.readBoolean();
+			case DATE:
+				return new java.sql.Date(input.readLong());
+			case TIME:
+				return new Time(input.readLong());
+			case TIMESTAMP:
+				Timestamp timestamp = new Timestamp(input.readLong());
+				timestamp.setNanos(input.readInt());
+				return timestamp;
+			default:
+				throw new BusinessException("分页标记无效!");
+		}
+	}
+
+	private KeysetToken() {
+	}
+
+}
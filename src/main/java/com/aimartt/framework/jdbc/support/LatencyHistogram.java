@@ -0,0 +1,180 @@
+package com.aimartt.framework.jdbc.support;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * <p>无锁的耗时直方图，单位为微秒。</p>
+ * <p>桶按 2 的幂次划分，每个幂次再等分为 {@value #SUB_BUCKETS} 个子桶，相对误差不超过 25%；
+ * 记录只做几次原子累加，可在每次查询时调用。超过最大桶范围（约 4.7 小时）的耗时计入最后一个桶。</p>
+ */
+public class LatencyHistogram {
+
+	/** 每个 2 的幂次的子桶个数 */
+	static final int SUB_BUCKETS = 4;
+
+	/** 最大的 2 的幂次 */
+	static final int MAX_EXPONENT = 34;
+
+	static final int BUCKETS = (MAX_EXPONENT - 1) * SUB_BUCKETS + SUB_BUCKETS;
+
+	private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+
+	private final AtomicLong count = new AtomicLong();
+
+	private final AtomicLong totalMicros = new AtomicLong();
+
+	private final AtomicLong maxMicros = new AtomicLong();
+
+	/**
+	 * <p>记录一次耗时。</p>
+	 * @param nanos 耗时（纳秒）
+	 */
+	public void record(long nanos) {
+		long micros = Math.max(TimeUnit.NANOSECONDS.toMicros(nanos), 0);
+		buckets.incrementAndGet(index(micros));
+		count.incrementAndGet();
+		totalMicros.addAndGet(micros);
+		long max = maxMicros.get();
+		while (micros > max && !maxMicros.compareAndSet(max, micros)) {
+			max = maxMicros.get();
+		}
+	}
+
+	/**
+	 * <p>当前统计的快照。并发记录时快照中的各项统计可能相差几次记录。</p>
+	 * @return
+	 */
+	public Snapshot snapshot() {
+		long[] counts = new long[BUCKETS];
+		for (int i = 0; i < BUCKETS; i++) {
+			counts[i] = buckets.get(i);
+		}
+		return new Snapshot(counts, count.get(), totalMicros.get(), maxMicros.get());
+	}
+
+	/**
+	 * <p>清空统计。</p>
+	 */
+	public void reset() {
+		for (int i = 0; i < BUCKETS; i++) {
+			buckets.set(i, 0);
+		}
+		count.set(0);
+		totalMicros.set(0);
+		maxMicros.set(0);
+	}
+
+	/**
+	 * <p>耗时所在的桶。</p>
+	 */
+	static int index(long micros) {
+		if (micros < SUB_BUCKETS) {
+			return (int) micros;
+		}
+		int exponent = 63 - Long.numberOfLeadingZeros(micros);
+		int sub = (int) (micros >>> (exponent - 2)) & (SUB_BUCKETS - 1);
+		return Math.min((exponent - 1) * SUB_BUCKETS + sub, BUCKETS - 1);
+	}
+
+	/**
+	 * <p>桶的下界（微秒）。</p>
+	 */
+	static long lowerBound(int index) {
+		if (index < SUB_BUCKETS) {
+			return index;
+		}
+		int exponent = index / SUB_BUCKETS + 1;
+		return (long) (SUB_BUCKETS + index % SUB_BUCKETS) << (exponent - 2);
+	}
+
+	/**
+	 * <p>耗时直方图快照。</p>
+	 */
+	public static final class Snapshot {
+
+		private final long[] counts;
+		private final long count;
+		private final long totalMicros;
+		private final long maxMicros;
+
+		Snapshot(long[] counts, long count, long totalMicros, long maxMicros) {
+			this.counts = counts;
+			this.count = count;
+			this.totalMicros = totalMicros;
+			this.maxMicros = maxMicros;
+		}
+
+		/**
+		 * <p>记录次数。</p>
+		 * @return
+		 */
+		public long getCount() {
+			return count;
+		}
+
+		/**
+		 * <p>总耗时（微秒）。</p>
+		 * @return
+		 */
+		public long getTotalMicros() {
+			return totalMicros;
+		}
+
+		/**
+		 * <p>最大耗时（微秒）。</p>
+		 * @return
+		 */
+		public long getMaxMicros() {
+			return maxMicros;
+		}
+
+		/**
+		 * <p>平均耗时（微秒）。</p>
+		 * @return
+		 */
+		public long getMeanMicros() {
+			return (count > 0) ? totalMicros / count : 0;
+		}
+
+		public long getP50Micros() {
+			return percentile(0.5);
+		}
+
+		public long getP90Micros() {
+			return percentile(0.9);
+		}
+
+		public long getP99Micros() {
+			return percentile(0.99);
+		}
+
+		/**
+		 * <p>耗时百分位数（微秒），取所在桶的上界且不超过最大耗时。</p>
+		 * @param quantile 0 到 1 之间
+		 * @return
+		 */
+		public long percentile(double quantile) {
+			long total = 0;
+			for (long c : counts) {
+				total += c;
+			}
+			if (total == 0) {
+				return 0;
+			}
+			long rank = (long) Math.ceil(quantile * total);
+			long seen = 0;
+			for (int i = 0; i < counts.length; i++) {
+				seen += counts[i];
+				if (seen >= rank && counts[i] > 0) {
+					long upper = (i + 1 < BUCKETS) ? lowerBound(i + 1) - 1 : maxMicros;
+					return Math.min(upper, maxMicros);
+				}
+			}
+			return maxMicros;
+		}
+
+	}
+
+}
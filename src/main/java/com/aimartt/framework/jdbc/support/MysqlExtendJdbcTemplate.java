@@ -1,39 +1,171 @@
 package com.aimartt.framework.jdbc.support;
 
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
+import javax.sql.DataSource;
+
+import org.apache.commons.dbcp.BasicDataSource;
 import org.apache.log4j.Logger;
+import org.springframework.dao.DataAccessException;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.jdbc.core.BeanPropertyRowMapper;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterDisposer;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.SqlProvider;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
 
+import com.aimartt.framework.exception.BusinessException;
+import com.aimartt.framework.jdbc.CloseableIterator;
+import com.aimartt.framework.jdbc.CountStrategy;
+import com.aimartt.framework.jdbc.CountedPage;
+import com.aimartt.framework.jdbc.EntityCallbackHandler;
 import com.aimartt.framework.jdbc.ExtendJdbcTemplate;
+import com.aimartt.framework.jdbc.KeysetSlice;
+import com.aimartt.framework.jdbc.PagingStrategy;
+import com.aimartt.framework.jdbc.QueryOptions;
+import com.aimartt.framework.jdbc.dialect.MySqlDialect;
+import com.aimartt.framework.jdbc.dialect.SqlDialect;
+import com.alibaba.druid.pool.DruidDataSource;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 public class MysqlExtendJdbcTemplate extends JdbcTemplate implements ExtendJdbcTemplate {
 
 	static final Logger logger = Logger.getLogger(MysqlExtendJdbcTemplate.class);
 
-	static final String PAGE_QUERY_STRING = " %s limit %d, %d ";
+	static final String DEFERRED_JOIN_QUERY_STRING = " select x.* from (%s) x inner join (%s) k on x.%s = k.deferred_key ";
+
+	static final String DEFERRED_JOIN_TABLE_QUERY_STRING = " select x.* from %s x inner join (%s) k on x.%s = k.deferred_key ";
+
+	/** 作为派生表时不能合并到外层查询的语句，MySQL 会物化其完整结果 */
+	static final Pattern NON_MERGEABLE_QUERY = Pattern.compile("\\b(?:group\\s+by|distinct|limit|union|having)\\b",
+			Pattern.CASE_INSENSITIVE);
+
+	static final String UPDATE_STATEMENT = " update %s set %s where %s = ? ";
+
+	/** 写入语句及其第一个表名 */
+	static final Pattern WRITE_STATEMENT = Pattern.compile(
+			"^\\s*(?:insert\\s+(?:ignore\\s+)?into|replace\\s+into|update|delete\\s+from)\\s+([`\"\\w.]+)",
+			Pattern.CASE_INSENSITIVE);
+
+	/** 当前线程正在执行的动态条件，慢查询日志记录其键 */
+	private static final ThreadLocal<Map<String, Object>> CONDITIONS = new ThreadLocal<Map<String, Object>>();
+
+	/** 默认限量统计上限 */
+	public static final int DEFAULT_COUNT_LIMIT = 10000;
+
+	/** 默认并发统计线程数 */
+	public static final int DEFAULT_COUNT_THREADS = 8;
+
+	/** 默认批量写入每批的行数 */
+	public static final int DEFAULT_BATCH_SIZE = 500;
+
+	/** 默认 IN 条件拆分查询的参数个数 */
+	public static final int DEFAULT_IN_SPLIT_SIZE = 8 * InClause.CHUNK_SIZE;
+
+	/** 默认连接池繁忙比例 */
+	public static final double DEFAULT_POOL_BUSY_RATIO = 0.75;
+
+	private SqlDialect dialect = new MySqlDialect();
+
+	private PagingStrategy pagingStrategy = PagingStrategy.OFFSET;
+
+	private String keyColumn = "id";
+
+	private CountCache countCache;
+
+	private ResultCache resultCache;
+
+	private SingleFlight singleFlight;
+
+	private QueryMetrics queryMetrics;
+
+	private SlowQueryLog slowQueryLog;
+
+	private CountStrategy countStrategy = CountStrategy.EXACT;
+
+	private int countLimit = DEFAULT_COUNT_LIMIT;
+
+	private boolean concurrentCount = false;
+
+	private volatile ExecutorService countExecutor;
+
+	private int inSplitSize = DEFAULT_IN_SPLIT_SIZE;
+
+	private Integer streamFetchSize;
+
+	private int batchSize = DEFAULT_BATCH_SIZE;
+
+	private double poolBusyRatio = DEFAULT_POOL_BUSY_RATIO;
 
 	@Override
 	public long queryForCount(String sql, Object... object) {
-		Number number = queryForObject(sql, Long.class, object);
+		long start = System.nanoTime();
+		Number number;
+		try {
+			number = queryForObject(sql, Long.class, object);
+		} catch (RuntimeException e) {
+			if (queryMetrics != null) {
+				queryMetrics.recordError(sql);
+			}
+			throw e;
+		}
+		long elapsed = System.nanoTime() - start;
+		if (queryMetrics != null) {
+			queryMetrics.recordCount(sql, elapsed);
+		}
+		recordSlowQuery(sql, object, elapsed);
 		return (number != null ? number.longValue() : 0);
 	}
 
 	@Override
 	public long queryForCount(String sql, Map<String, Object> conditions) {
-		QueryCondition countQuery = QueryCondition.createCountQuery(sql, conditions);
-		return queryForCount(countQuery.sql, countQuery.params);
+		Map<String, Object> outer = enterConditions(conditions);
+		try {
+			long count = 0;
+			for (Map<String, Object> split : QueryCondition.splitConditions(sql, conditions, inSplitSize)) {
+				count += queryForSharedCount(QueryCondition.createCountQuery(sql, split), null);
+			}
+			return count;
+		} finally {
+			exitConditions(outer);
+		}
 	}
 
 	@Override
 	public <T> List<T> queryForList(Class<T> transClass, String sql, Object... object) {
-		return super.query(sql, object, BeanPropertyRowMapper.newInstance(transClass));
+		return queryForContent(sql, object, EntityRowMapper.newInstance(transClass));
 	}
 
 	@Override
@@ -44,8 +176,30 @@ public class MysqlExtendJdbcTemplate extends JdbcTemplate implements ExtendJdbcT
 	@Override
 	public <T> List<T> queryForList(Class<T> transClass, String sql, Map<String, Object> conditions,
 			Map<String, Boolean> orders) {
-		QueryCondition result = QueryCondition.createResultQuery(sql, conditions, orders);
-		return queryForList(transClass, result.sql, result.params);
+		return queryForList(transClass, sql, conditions, orders, null);
+	}
+
+	@Override
+	public <T> List<T> queryForList(Class<T> transClass, String sql, Map<String, Object> conditions,
+			Map<String, Boolean> orders, QueryOptions options) {
+		Map<String, Object> outer = enterConditions(conditions);
+		try {
+			if (orders == null || orders.isEmpty()) {
+				List<Map<String, Object>> splits = QueryCondition.splitConditions(sql, conditions, inSplitSize);
+				if (splits.size() > 1) {
+					List<T> content = new ArrayList<T>();
+					for (Map<String, Object> split : splits) {
+						QueryCondition result = QueryCondition.createResultQuery(sql, split);
+						content.addAll(queryForCachedList(transClass, result.sql, result.params, options));
+					}
+					return content;
+				}
+			}
+			QueryCondition result = QueryCondition.createResultQuery(sql, conditions, orders);
+			return queryForCachedList(transClass, result.sql, result.params, options);
+		} finally {
+			exitConditions(outer);
+		}
 	}
 
 	@Override
@@ -56,20 +210,30 @@ public class MysqlExtendJdbcTemplate extends JdbcTemplate implements ExtendJdbcT
 	@Override
 	public <T> Page<T> queryForPage(Class<T> transClass, String sql, Pageable pageable, Map<String, Boolean> orderBys,
 			Object... object) {
-		QueryCondition count = QueryCondition.createCountQuery(sql, object);
-		long total = queryForCount(count.sql, count.params);
-		if (total < 1) {
-			return new PageImpl<T>(Collections.<T>emptyList());
+		object = (object != null) ? object : new Object[0];
+		Future<PageCount> countFuture = submitCountForPage(sql, null, object, pageable, null);
+		PageCount total = null;
+		if (countFuture == null) {
+			total = countForPage(sql, null, object, pageable, null);
+			if (total.isEmpty()) {
+				return total.emptyPage();
+			}
 		}
 
-		if (orderBys != null && !orderBys.isEmpty()) {
-			StringBuilder sqlbuilder = new StringBuilder(sql);
-			QueryCondition.orderBy(sqlbuilder, orderBys);
-			sql = sqlbuilder.toString();
+		List<T> content;
+		try {
+			if (pagingStrategy == PagingStrategy.DEFERRED_JOIN && isDeferrable(sql, null)) {
+				content = deferredJoinQuery(transClass, sql, object, null, pageable, orderBys, keyColumn, null);
+			} else {
+				QueryCondition result = QueryCondition.createOrderedQuery(sql, object, orderBys,
+						dialect.pageClause());
+				content = queryForCachedList(transClass, result.sql, pageableParams(result.params, pageable), null);
+			}
+		} catch (RuntimeException e) {
+			cancel(countFuture);
+			throw e;
 		}
-		sql = pageableQuery(sql, pageable);
-		List<T> content = queryForList(transClass, sql, object);
-		return new PageImpl<T>(content, pageable, total);
+		return createPage(content, pageable, total, countFuture);
 	}
 
 	@Override
@@ -80,22 +244,950 @@ public class MysqlExtendJdbcTemplate extends JdbcTemplate implements ExtendJdbcT
 	@Override
 	public <T> Page<T> queryForPage(Class<T> transClass, String sql, Map<String, Object> conditions, Pageable pageable,
 			Map<String, Boolean> orders) {
-		QueryCondition count = QueryCondition.createCountQuery(sql, conditions);
-		long total = queryForCount(count.sql, count.params);
-		if (total < 1) {
-			return new PageImpl<T>(Collections.<T> emptyList());
+		return queryForPage(transClass, sql, conditions, pageable, orders, null);
+	}
+
+	@Override
+	public <T> Page<T> queryForPage(Class<T> transClass, String sql, Map<String, Object> conditions, Pageable pageable,
+			Map<String, Boolean> orders, QueryOptions options) {
+		Map<String, Object> outer = enterConditions(conditions);
+		try {
+			Future<PageCount> countFuture = submitCountForPage(sql, conditions, null, pageable, options);
+			PageCount total = null;
+			if (countFuture == null) {
+				total = countForPage(sql, conditions, null, pageable, options);
+				if (total.isEmpty()) {
+					return total.emptyPage();
+				}
+			}
+
+			PagingStrategy strategy = (options != null && options.getPagingStrategy() != null) ? options
+					.getPagingStrategy() : pagingStrategy;
+			List<T> content;
+			try {
+				if (strategy == PagingStrategy.DEFERRED_JOIN
+						&& isDeferrable(sql, (options != null) ? options.getJoinTable() : null)) {
+					String key = (options != null && options.getKeyColumn() != null) ? options.getKeyColumn()
+							: keyColumn;
+					content = deferredJoinQuery(transClass, sql, new Object[0], conditions, pageable, orders, key,
+							options);
+				} else {
+					QueryCondition result = QueryCondition.createResultQuery(sql, conditions, orders,
+							dialect.pageClause());
+					content = queryForCachedList(transClass, result.sql, pageableParams(result.params, pageable),
+							options);
+				}
+			} catch (RuntimeException e) {
+				cancel(countFuture);
+				throw e;
+			}
+			return createPage(content, pageable, total, countFuture);
+		} finally {
+			exitConditions(outer);
+		}
+	}
+
+	@Override
+	public <T> void queryForEach(Class<T> transClass, String sql, EntityCallbackHandler<T> handler, Object... object) {
+		CloseableIterator<T> iterator = queryForIterator(transClass, sql, object);
+		try {
+			while (iterator.hasNext()) {
+				handler.processEntity(iterator.next());
+			}
+		} finally {
+			iterator.close();
 		}
+	}
 
+	@Override
+	public <T> void queryForEach(Class<T> transClass, String sql, Map<String, Object> conditions,
+			Map<String, Boolean> orders, EntityCallbackHandler<T> handler) {
+		if (orders == null || orders.isEmpty()) {
+			for (Map<String, Object> split : QueryCondition.splitConditions(sql, conditions, inSplitSize)) {
+				QueryCondition result = QueryCondition.createResultQuery(sql, split);
+				queryForEach(transClass, result.sql, handler, result.params);
+			}
+			return;
+		}
 		QueryCondition result = QueryCondition.createResultQuery(sql, conditions, orders);
-		sql = pageableQuery(result.sql, pageable);
-		List<T> content = queryForList(transClass, sql, result.params);
-		return new PageImpl<T>(content, pageable, total);
+		queryForEach(transClass, result.sql, handler, result.params);
+	}
+
+	@Override
+	public <T> CloseableIterator<T> queryForIterator(Class<T> transClass, String sql, Object... object) {
+		DataSource dataSource = getDataSource();
+		Connection con = DataSourceUtils.getConnection(dataSource);
+		PreparedStatement ps = null;
+		ResultSet rs = null;
+		PreparedStatementSetter pss = newArgPreparedStatementSetter(object);
+		try {
+			ps = con.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+			applyStatementSettings(ps);
+			ps.setFetchSize((streamFetchSize != null) ? streamFetchSize : dialect.streamingFetchSize());
+			pss.setValues(ps);
+			rs = ps.executeQuery();
+			return new ResultSetIterator<T>(dataSource, con, ps, rs, EntityRowMapper.newInstance(transClass),
+					getExceptionTranslator(), sql);
+		} catch (SQLException e) {
+			release(rs, ps, con, dataSource);
+			throw getExceptionTranslator().translate("StreamingQuery", sql, e);
+		} catch (RuntimeException e) {
+			// 如参数类型不支持，连接在迭代器之外持有，须在此释放
+			release(rs, ps, con, dataSource);
+			throw e;
+		} finally {
+			if (pss instanceof ParameterDisposer) {
+				((ParameterDisposer) pss).cleanupParameters();
+			}
+		}
+	}
+
+	/**
+	 * <p>关闭流式查询的结果集和语句，释放连接。</p>
+	 */
+	private static void release(ResultSet rs, Statement ps, Connection con, DataSource dataSource) {
+		JdbcUtils.closeResultSet(rs);
+		JdbcUtils.closeStatement(ps);
+		DataSourceUtils.releaseConnection(con, dataSource);
+	}
+
+	@Override
+	public <T> CloseableIterator<T> queryForIterator(Class<T> transClass, String sql, Map<String, Object> conditions,
+			Map<String, Boolean> orders) {
+		QueryCondition result = QueryCondition.createResultQuery(sql, conditions, orders);
+		return queryForIterator(transClass, result.sql, result.params);
+	}
+
+	@Override
+	public <T> KeysetSlice<T> queryForKeysetPage(Class<T> transClass, String sql, Map<String, Object> conditions,
+			Map<String, Boolean> orders, int size, String token) {
+		Map<String, Object> outer = enterConditions(conditions);
+		try {
+			Assert.notEmpty(orders, "键集分页必须指定排序字段!");
+			Assert.isTrue(size > 0, "每页数据量必须大于0!");
+			String[] columns = new String[orders.size()];
+			StringBuilder signature = new StringBuilder();
+			int i = 0;
+			for (Map.Entry<String, Boolean> entry : orders.entrySet()) {
+				columns[i] = SearchFilter.coverdColumnName(entry.getKey());
+				signature.append(columns[i]).append(entry.getValue() ? " asc," : " desc,");
+				i++;
+			}
+			Object[] lastKeys = (token != null) ? KeysetToken.decode(token, signature.toString(), columns.length) : null;
+			QueryCondition result = QueryCondition.createKeysetQuery(sql, conditions, orders, lastKeys,
+					dialect.limitClause(), dialect.supportsRowValueComparison());
+			// 多取一行判断是否存在下一页
+			KeysetRowMapper<T> rowMapper = new KeysetRowMapper<T>(EntityRowMapper.newInstance(transClass), columns, size);
+			List<T> content = queryForContent(result.sql, appendParams(result.params, size + 1), rowMapper);
+			String nextToken = null;
+			if (content.size() > size) {
+				content = new ArrayList<T>(content.subList(0, size));
+				nextToken = KeysetToken.encode(signature.toString(), rowMapper.lastKeys);
+			}
+			return new KeysetSlice<T>(content, new PageRequest(0, size), nextToken);
+		} finally {
+			exitConditions(outer);
+		}
+	}
+
+	@Override
+	public int[] batchInsert(String table, List<?> entities) {
+		return batchInsert(table, entities, null);
+	}
+
+	@Override
+	public int[] upsert(String table, List<?> entities, String... updateProperties) {
+		if (entities == null || entities.isEmpty()) {
+			return new int[0];
+		}
+		EntityColumns columns = EntityColumns.forClass(entities.get(0).getClass());
+		String[] updateColumns = columns.columns;
+		if (updateProperties != null && updateProperties.length > 0) {
+			updateColumns = new String[updateProperties.length];
+			for (int i = 0; i < updateProperties.length; i++) {
+				updateColumns[i] = columns.columns[columns.indexOf(updateProperties[i])];
+			}
+		}
+		return batchInsert(table, entities, dialect.upsertClause(updateColumns));
+	}
+
+	/**
+	 * <p>按批执行多行插入，每批行数不超过 batchSize，且参数个数不超过方言允许的最大参数个数。</p>
+	 * @param suffix 追加在插入语句之后的子句，可为空
+	 */
+	private int[] batchInsert(String table, List<?> entities, String suffix) {
+		if (entities == null || entities.isEmpty()) {
+			return new int[0];
+		}
+		EntityColumns columns = EntityColumns.forClass(entities.get(0).getClass());
+		int width = columns.columns.length;
+		int rows = Math.max(1, Math.min(batchSize, dialect.maxParameters() / width));
+		String insert = dialect.insertStatement(table, columns.columns);
+		int[] counts = new int[(entities.size() + rows - 1) / rows];
+		for (int chunk = 0; chunk < counts.length; chunk++) {
+			List<?> batch = entities.subList(chunk * rows, Math.min((chunk + 1) * rows, entities.size()));
+			StringBuilder sql = new StringBuilder(insert.length() + batch.size() * width * 3);
+			sql.append(insert);
+			Object[] params = new Object[batch.size() * width];
+			int p = 0;
+			for (int i = 0; i < batch.size(); i++) {
+				Object entity = batch.get(i);
+				sql.append((i > 0) ? ", (" : "(");
+				for (int j = 0; j < width; j++) {
+					sql.append((j > 0) ? ", ?" : "?");
+					params[p++] = columns.getValue(entity, j);
+				}
+				sql.append(")");
+			}
+			if (suffix != null) {
+				sql.append(suffix);
+			}
+			counts[chunk] = update(sql.toString(), params);
+		}
+		return counts;
+	}
+
+	@Override
+	public int[] batchUpdate(String table, List<?> entities, String keyProperty) {
+		if (entities == null || entities.isEmpty()) {
+			return new int[0];
+		}
+		EntityColumns columns = EntityColumns.forClass(entities.get(0).getClass());
+		int key = columns.indexOf(keyProperty);
+		StringBuilder sets = new StringBuilder();
+		for (int j = 0; j < columns.columns.length; j++) {
+			if (j != key) {
+				sets.append((sets.length() > 0) ? ", " : "").append(columns.columns[j]).append(" = ?");
+			}
+		}
+		String sql = String.format(UPDATE_STATEMENT, table, sets, columns.columns[key]);
+		int rows = Math.max(1, batchSize);
+		int[] counts = new int[(entities.size() + rows - 1) / rows];
+		for (int chunk = 0; chunk < counts.length; chunk++) {
+			List<?> batch = entities.subList(chunk * rows, Math.min((chunk + 1) * rows, entities.size()));
+			List<Object[]> batchArgs = new ArrayList<Object[]>(batch.size());
+			for (Object entity : batch) {
+				Object[] args = new Object[columns.columns.length];
+				int p = 0;
+				for (int j = 0; j < columns.columns.length; j++) {
+					if (j != key) {
+						args[p++] = columns.getValue(entity, j);
+					}
+				}
+				args[p] = columns.getValue(entity, key);
+				batchArgs.add(args);
+			}
+			counts[chunk] = affectedRows(batchUpdate(sql, batchArgs));
+		}
+		return counts;
+	}
+
+	/**
+	 * <p>合计批处理影响的行数，驱动未返回行数（如 MySQL 开启 rewriteBatchedStatements）时返回
+	 * {@link Statement#SUCCESS_NO_INFO}。</p>
+	 */
+	private static int affectedRows(int[] counts) {
+		int total = 0;
+		for (int count : counts) {
+			if (count < 0) {
+				return Statement.SUCCESS_NO_INFO;
+			}
+			total += count;
+		}
+		return total;
+	}
+
+	@Override
+	public void invalidateCounts(String... tables) {
+		if (countCache != null) {
+			countCache.invalidate(tables);
+		}
+	}
+
+	@Override
+	public void invalidateTables(String... tables) {
+		invalidateCounts(tables);
+		if (resultCache != null) {
+			resultCache.invalidate(tables);
+		}
+	}
+
+	@Override
+	public int update(String sql) throws DataAccessException {
+		int rows = super.update(sql);
+		invalidateWritten(sql);
+		return rows;
+	}
+
+	@Override
+	public int update(String sql, PreparedStatementSetter pss) throws DataAccessException {
+		int rows = super.update(sql, pss);
+		invalidateWritten(sql);
+		return rows;
+	}
+
+	@Override
+	public int update(PreparedStatementCreator psc) throws DataAccessException {
+		int rows = super.update(psc);
+		invalidateWritten(psc);
+		return rows;
 	}
 
-	protected String pageableQuery(String sql, Pageable pageable) {
+	@Override
+	public int update(PreparedStatementCreator psc, KeyHolder generatedKeyHolder) throws DataAccessException {
+		int rows = super.update(psc, generatedKeyHolder);
+		invalidateWritten(psc);
+		return rows;
+	}
+
+	@Override
+	public int[] batchUpdate(String... sql) throws DataAccessException {
+		int[] rows = super.batchUpdate(sql);
+		for (String statement : sql) {
+			invalidateWritten(statement);
+		}
+		return rows;
+	}
+
+	@Override
+	public int[] batchUpdate(String sql, BatchPreparedStatementSetter pss) throws DataAccessException {
+		int[] rows = super.batchUpdate(sql, pss);
+		invalidateWritten(sql);
+		return rows;
+	}
+
+	@Override
+	public <T> int[][] batchUpdate(String sql, Collection<T> batchArgs, int batchSize,
+			ParameterizedPreparedStatementSetter<T> pss) throws DataAccessException {
+		int[][] rows = super.batchUpdate(sql, batchArgs, batchSize, pss);
+		invalidateWritten(sql);
+		return rows;
+	}
+
+	/**
+	 * <p>写入后清除所写表的缓存，语句从 {@link SqlProvider} 获取，无法获取时不清除。</p>
+	 */
+	private void invalidateWritten(PreparedStatementCreator psc) {
+		if (psc instanceof SqlProvider) {
+			invalidateWritten(((SqlProvider) psc).getSql());
+		}
+	}
+
+	/**
+	 * <p>写入后清除所写表的缓存。存在事务时，事务结束后再清除一次，避免事务提交前其它查询缓存了旧数据。</p>
+	 * @param sql insert、replace、update、delete 语句，只识别第一个表
+	 */
+	private void invalidateWritten(String sql) {
+		if (sql == null || (countCache == null && resultCache == null)) {
+			return;
+		}
+		Matcher matcher = WRITE_STATEMENT.matcher(sql);
+		if (!matcher.find()) {
+			return;
+		}
+		String table = StringUtils.deleteAny(matcher.group(1), "`\"");
+		final String name = table.substring(table.lastIndexOf('.') + 1);
+		invalidateTables(name);
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+				@Override
+				public void afterCompletion(int status) {
+					invalidateTables(name);
+				}
+			});
+		}
+	}
+
+	/**
+	 * <p>查询数据集合，设置了查询统计时记录查询和行映射的耗时。</p>
+	 */
+	private <T> List<T> queryForContent(String sql, Object[] params, RowMapper<T> rowMapper) {
+		if (queryMetrics == null && slowQueryLog == null) {
+			return super.query(sql, params, rowMapper);
+		}
+		TimedRowMapper<T> timedRowMapper = new TimedRowMapper<T>(rowMapper);
+		long start = System.nanoTime();
+		List<T> content;
+		try {
+			content = super.query(sql, params, timedRowMapper);
+		} catch (RuntimeException e) {
+			if (queryMetrics != null) {
+				queryMetrics.recordError(sql);
+			}
+			throw e;
+		}
+		long elapsed = System.nanoTime() - start;
+		if (queryMetrics != null) {
+			queryMetrics.recordContent(sql, elapsed, timedRowMapper.nanos, content.size());
+		}
+		recordSlowQuery(sql, params, elapsed);
+		return content;
+	}
+
+	/**
+	 * <p>设置了慢查询日志时记录查询耗时，附带当前线程正在执行的动态条件的键。</p>
+	 */
+	private void recordSlowQuery(String sql, Object[] params, long nanos) {
+		if (slowQueryLog != null) {
+			Map<String, Object> conditions = CONDITIONS.get();
+			slowQueryLog.record(this, sql, params, nanos, (conditions != null) ? conditions.keySet() : null);
+		}
+	}
+
+	/**
+	 * <p>记录当前线程正在执行的动态条件，返回外层的动态条件。</p>
+	 */
+	private static Map<String, Object> enterConditions(Map<String, Object> conditions) {
+		Map<String, Object> outer = CONDITIONS.get();
+		CONDITIONS.set(conditions);
+		return outer;
+	}
+
+	/**
+	 * <p>恢复外层的动态条件。</p>
+	 */
+	private static void exitConditions(Map<String, Object> outer) {
+		if (outer != null) {
+			CONDITIONS.set(outer);
+		} else {
+			CONDITIONS.remove();
+		}
+	}
+
+	/**
+	 * <p>查询数据集合，查询选项指定了涉及的表且设置了结果缓存时使用缓存，设置了查询合并时与相同的并发查询共享结果。</p>
+	 * <p>缓存和共享的集合不可修改，每次返回其副本。</p>
+	 */
+	private <T> List<T> queryForCachedList(final Class<T> transClass, final String sql, final Object[] params,
+			QueryOptions options) {
+		if (cacheTables(options) == null && !coalescing(options)) {
+			return queryForList(transClass, sql, params);
+		}
+		List<T> shared = queryShared(sql, params, transClass, options, new Callable<List<T>>() {
+			@Override
+			public List<T> call() {
+				return Collections.unmodifiableList(queryForList(transClass, sql, params));
+			}
+		});
+		return new ArrayList<T>(shared);
+	}
+
+	/**
+	 * <p>统计总数，使用结果缓存和查询合并。</p>
+	 */
+	private long queryForSharedCount(final QueryCondition count, QueryOptions options) {
+		return queryShared(count.sql, count.params, Long.class, options, new Callable<Long>() {
+			@Override
+			public Long call() {
+				return queryForCount(count.sql, count.params);
+			}
+		});
+	}
+
+	/**
+	 * <p>执行查询：使用结果缓存时先取缓存，未命中时查询；启用查询合并时，相同的查询正在执行则等待并共享其结果。</p>
+	 */
+	private <V> V queryShared(final String sql, final Object[] params, final Class<?> type, QueryOptions options,
+			final Callable<V> query) {
+		Callable<V> loader = query;
+		if (coalescing(options)) {
+			loader = new Callable<V>() {
+				@Override
+				public V call() {
+					return singleFlight.execute(sql, params, type, query);
+				}
+			};
+		}
+		String[] tables = cacheTables(options);
+		return (tables != null) ? resultCache.get(sql, params, type, tables, loader) : SingleFlight.call(loader);
+	}
+
+	/**
+	 * <p>是否合并相同的并发查询。存在事务时不合并：事务内的查询可能读到本事务未提交的数据，结果不能与其它调用共享。</p>
+	 */
+	private boolean coalescing(QueryOptions options) {
+		if (singleFlight == null || (options != null && Boolean.FALSE.equals(options.getCoalesce()))) {
+			return false;
+		}
+		return !TransactionSynchronizationManager.isActualTransactionActive();
+	}
+
+	/**
+	 * <p>结果缓存涉及的表，不使用结果缓存时返回 null。</p>
+	 */
+	private String[] cacheTables(QueryOptions options) {
+		if (resultCache == null || options == null || options.getCacheTables() == null
+				|| options.getCacheTables().length == 0) {
+			return null;
+		}
+		return options.getCacheTables();
+	}
+
+	/**
+	 * <p>在统计线程池中提交分页总数统计，与分页数据查询并发执行。</p>
+	 * <p>以下情况返回 null，由调用线程依次执行统计和查询：未启用并发统计；当前存在事务（其它线程无法使用事务连接）；
+	 * 连接池繁忙（避免高峰期单个请求占用两个连接）；统计线程池已满。</p>
+	 */
+	private Future<PageCount> submitCountForPage(final String sql, final Map<String, Object> conditions,
+			final Object[] sqlParams, final Pageable pageable, final QueryOptions options) {
+		boolean concurrent = (options != null && options.getConcurrentCount() != null) ? options
+				.getConcurrentCount() : concurrentCount;
+		if (!concurrent || TransactionSynchronizationManager.isActualTransactionActive() || isPoolBusy()) {
+			return null;
+		}
+		try {
+			return getCountExecutor().submit(new Callable<PageCount>() {
+				@Override
+				public PageCount call() {
+					Map<String, Object> outer = enterConditions(conditions);
+					try {
+						return countForPage(sql, conditions, sqlParams, pageable, options);
+					} finally {
+						exitConditions(outer);
+					}
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * <p>连接池是否繁忙：活动连接数达到最大连接数的 poolBusyRatio。空闲连接数不参与判断，刚启动的连接池没有空闲连接但并不繁忙。</p>
+	 * <p>会先解开 {@link DelegatingDataSource}（如 TransactionAwareDataSourceProxy）的代理，
+	 * 能判断 {@link BasicDataSource} 和 {@link DruidDataSource}，其他数据源视为不繁忙；子类可覆盖以支持其他连接池。</p>
+	 */
+	protected boolean isPoolBusy() {
+		DataSource dataSource = getDataSource();
+		while (dataSource instanceof DelegatingDataSource) {
+			dataSource = ((DelegatingDataSource) dataSource).getTargetDataSource();
+		}
+		if (dataSource instanceof BasicDataSource) {
+			BasicDataSource pool = (BasicDataSource) dataSource;
+			return isPoolBusy(pool.getNumActive(), pool.getMaxActive());
+		}
+		if (dataSource instanceof DruidDataSource) {
+			DruidDataSource pool = (DruidDataSource) dataSource;
+			return isPoolBusy(pool.getActiveCount(), pool.getMaxActive());
+		}
+		return false;
+	}
+
+	/**
+	 * <p>活动连接数是否达到最大连接数的 poolBusyRatio，最大连接数不限制时不繁忙。</p>
+	 */
+	private boolean isPoolBusy(int numActive, int maxActive) {
+		return maxActive > 0 && numActive >= maxActive * poolBusyRatio;
+	}
+
+	/**
+	 * <p>合并分页数据和总数。</p>
+	 * @param total 调用线程统计的总数，并发统计时为 null
+	 * @param countFuture 并发统计结果
+	 */
+	private <T> Page<T> createPage(List<T> content, Pageable pageable, PageCount total, Future<PageCount> countFuture) {
+		if (total == null) {
+			try {
+				total = countFuture.get();
+			} catch (InterruptedException e) {
+				cancel(countFuture);
+				Thread.currentThread().interrupt();
+				throw new BusinessException("分页总数统计被中断!", e);
+			} catch (ExecutionException e) {
+				Throwable cause = e.getCause();
+				if (cause instanceof RuntimeException) {
+					throw (RuntimeException) cause;
+				}
+				if (cause instanceof Error) {
+					throw (Error) cause;
+				}
+				throw new BusinessException(cause.getMessage(), cause);
+			}
+			if (total.isEmpty()) {
+				return total.emptyPage();
+			}
+		}
+		return total.page(content, pageable);
+	}
+
+	private static void cancel(Future<?> future) {
+		if (future != null) {
+			future.cancel(true);
+		}
+	}
+
+	private ExecutorService getCountExecutor() {
+		if (countExecutor == null) {
+			synchronized (this) {
+				if (countExecutor == null) {
+					ThreadPoolExecutor executor = new ThreadPoolExecutor(DEFAULT_COUNT_THREADS, DEFAULT_COUNT_THREADS,
+							60L, TimeUnit.SECONDS, new SynchronousQueue<Runnable>(), new ThreadFactoryBuilder()
+									.setDaemon(true).setNameFormat("jdbc-count-%d").build());
+					executor.allowCoreThreadTimeOut(true);
+					countExecutor = executor;
+				}
+			}
+		}
+		return countExecutor;
+	}
+
+	/**
+	 * <p>按统计方式获取分页总数。</p>
+	 * @param sql 原查询语句
+	 * @param conditions 动态条件，sqlParams 不为空时忽略
+	 * @param sqlParams 原查询语句中的参数，按动态条件查询时为 null
+	 * @param pageable
+	 * @param options
+	 * @return
+	 */
+	private PageCount countForPage(String sql, Map<String, Object> conditions, Object[] sqlParams,
+			Pageable pageable, QueryOptions options) {
+		CountStrategy strategy = (options != null && options.getCountStrategy() != null) ? options
+				.getCountStrategy() : countStrategy;
+		int limit = (options != null && options.getCountLimit() != null) ? options.getCountLimit() : countLimit;
+		if (strategy == CountStrategy.ESTIMATED) {
+			boolean filtered = (sqlParams != null) ? sqlParams.length > 0 : !SearchFilter.parse(conditions).isEmpty();
+			if (!filtered) {
+				long estimate = estimateCount(String.format(QueryCondition.QUERY_STRING, sql));
+				if (estimate > 0) {
+					return new PageCount(estimate, CountStrategy.ESTIMATED, false);
+				}
+			}
+			strategy = CountStrategy.CAPPED;
+		}
+		if (strategy == CountStrategy.CAPPED) {
+			String limitClause = dialect.limitClause();
+			QueryCondition rows = (sqlParams != null) ? QueryCondition.createRowQuery(sql, sqlParams, limitClause)
+					: QueryCondition.createRowQuery(sql, conditions, limitClause);
+			String countSql = dialect.countQuery(rows.sql);
+			long total = queryForPageCount(new QueryCondition(countSql, appendParams(rows.params, limit + 1)), pageable,
+					options);
+			return (total > limit) ? new PageCount(limit, CountStrategy.CAPPED, false) : new PageCount(total,
+					CountStrategy.CAPPED, true);
+		}
+		QueryCondition count = (sqlParams != null) ? QueryCondition.createCountQuery(sql, sqlParams)
+				: QueryCondition.createCountQuery(sql, conditions);
+		return new PageCount(queryForPageCount(count, pageable, options), CountStrategy.EXACT, true);
+	}
+
+	/**
+	 * <p>取执行计划的估算行数。</p>
+	 * @param sql
+	 * @return 无法估算时返回 -1
+	 */
+	protected long estimateCount(String sql) {
+		String explain = dialect.explainQuery(sql);
+		if (explain == null) {
+			return -1;
+		}
+		try {
+			return dialect.estimateRows(queryForList(explain));
+		} catch (DataAccessException e) {
+			logger.warn("估算总数失败：" + e.getMessage());
+			return -1;
+		}
+	}
+
+	/**
+	 * <p>获取分页总数。使用结果缓存时按结果缓存；否则启用总数缓存时，第一页总是重新统计并缓存，后续页复用缓存的总数。</p>
+	 */
+	private long queryForPageCount(QueryCondition count, Pageable pageable, QueryOptions options) {
+		if (cacheTables(options) != null || countCache == null) {
+			return queryForSharedCount(count, options);
+		}
+		if (pageable.getPageNumber() > 0) {
+			Long total = countCache.get(count.sql, count.params);
+			if (total != null) {
+				return total;
+			}
+		}
+		long generation = countCache.generation();
+		long total = queryForSharedCount(count, options);
+		countCache.put(count.sql, count.params, total, generation);
+		return total;
+	}
+
+	/**
+	 * <p>是否使用延迟关联分页。未指定关联表时关联回原查询，原查询含 GROUP BY、DISTINCT、LIMIT、UNION、HAVING 时
+	 * 会被物化为完整结果，比偏移量分页更慢，此时改用偏移量分页。</p>
+	 * @param sql 原查询语句
+	 * @param joinTable 关联表，可为 null
+	 */
+	static boolean isDeferrable(String sql, String joinTable) {
+		return joinTable != null || !NON_MERGEABLE_QUERY.matcher(sql).find();
+	}
+
+	/**
+	 * <p>延迟关联分页：先按条件、排序和偏移量只查询当前页的主键，再关联回原查询或指定的表获取完整数据。</p>
+	 * <pre>select x.* from (sql) x inner join (select x.id as deferred_key from (sql) x where ... order by ... limit a, b) k
+	 * on x.id = k.deferred_key order by ...</pre>
+	 * <p>查询选项指定了关联表（{@link QueryOptions#getJoinTable()}）时关联回该表，原查询只出现一次；
+	 * 未指定排序时按主键排序，保证主键查询和关联查询的顺序稳定。</p>
+	 * @param sqlParams 原查询语句中的参数，关联回原查询时原查询出现两次，参数同样绑定两次
+	 */
+	private <T> List<T> deferredJoinQuery(Class<T> transClass, String sql, Object[] sqlParams,
+			Map<String, Object> conditions, Pageable pageable, Map<String, Boolean> orders, String keyColumn,
+			QueryOptions options) {
+		if (orders == null || orders.isEmpty()) {
+			orders = Collections.singletonMap(keyColumn, Boolean.TRUE);
+		}
+		QueryCondition keys = QueryCondition.createKeyQuery(sql, sqlParams, keyColumn, conditions, orders,
+				dialect.pageClause());
+		String joinTable = (options != null) ? options.getJoinTable() : null;
+		String joinSql;
+		Object[] params;
+		if (joinTable != null) {
+			joinSql = String.format(DEFERRED_JOIN_TABLE_QUERY_STRING, joinTable, keys.sql, keyColumn);
+			params = keys.params;
+		} else {
+			joinSql = String.format(DEFERRED_JOIN_QUERY_STRING, sql, keys.sql, keyColumn);
+			params = new Object[sqlParams.length + keys.params.length];
+			System.arraycopy(sqlParams, 0, params, 0, sqlParams.length);
+			System.arraycopy(keys.params, 0, params, sqlParams.length, keys.params.length);
+		}
+		QueryCondition result = QueryCondition.createOrderedQuery(joinSql, pageableParams(params, pageable), orders,
+				null);
+		return queryForCachedList(transClass, result.sql, result.params, options);
+	}
+
+	/**
+	 * <p>追加分页参数，与 {@link SqlDialect#pageClause()} 对应。</p>
+	 * @param params
+	 * @param pageable
+	 * @return
+	 */
+	protected Object[] pageableParams(Object[] params, Pageable pageable) {
 		int page = pageable.getPageNumber();
 		int size = pageable.getPageSize();
-		return String.format(PAGE_QUERY_STRING, sql, (page * size), size);
+		return appendParams(params, dialect.pageParams(page * size, size));
+	}
+
+	private static Object[] appendParams(Object[] params, Object... values) {
+		Object[] result = new Object[params.length + values.length];
+		System.arraycopy(params, 0, result, 0, params.length);
+		System.arraycopy(values, 0, result, params.length, values.length);
+		return result;
+	}
+
+	/**
+	 * <p>设置数据库方言，默认为 {@link MySqlDialect}。</p>
+	 * @param dialect
+	 */
+	public void setDialect(SqlDialect dialect) {
+		Assert.notNull(dialect, "数据库方言不能为空!");
+		this.dialect = dialect;
+	}
+
+	public SqlDialect getDialect() {
+		return dialect;
+	}
+
+	/**
+	 * <p>设置默认分页方式，默认为 {@link PagingStrategy#OFFSET}。</p>
+	 * @param pagingStrategy
+	 */
+	public void setPagingStrategy(PagingStrategy pagingStrategy) {
+		this.pagingStrategy = pagingStrategy;
+	}
+
+	/**
+	 * <p>设置延迟关联分页默认使用的主键列名，默认为 id。</p>
+	 * @param keyColumn
+	 */
+	public void setKeyColumn(String keyColumn) {
+		this.keyColumn = keyColumn;
+	}
+
+	/**
+	 * <p>设置分页总数缓存，默认不缓存。</p>
+	 * @param countCache
+	 */
+	public void setCountCache(CountCache countCache) {
+		this.countCache = countCache;
+	}
+
+	/**
+	 * <p>设置查询结果缓存，默认不缓存。只缓存查询选项指定了涉及表（{@link QueryOptions#cached(String...)}）的查询。</p>
+	 * @param resultCache
+	 */
+	public void setResultCache(ResultCache resultCache) {
+		this.resultCache = resultCache;
+	}
+
+	/**
+	 * <p>设置查询合并，未设置时不合并。</p>
+	 * <p>列表、分页和条件统计查询执行期间，相同 SQL 和参数的并发查询等待并共享其结果；存在事务时不合并，
+	 * 单次查询可通过 {@link QueryOptions#setCoalesce(Boolean)} 关闭。</p>
+	 * @param singleFlight
+	 */
+	public void setSingleFlight(SingleFlight singleFlight) {
+		this.singleFlight = singleFlight;
+	}
+
+	/**
+	 * <p>设置查询统计，未设置时不统计。</p>
+	 * <p>按 SQL 形状统计总数查询、数据查询和行映射的耗时，流式查询不在统计之内。</p>
+	 * @param queryMetrics
+	 */
+	public void setQueryMetrics(QueryMetrics queryMetrics) {
+		this.queryMetrics = queryMetrics;
+	}
+
+	public QueryMetrics getQueryMetrics() {
+		return queryMetrics;
+	}
+
+	/**
+	 * <p>设置慢查询日志，未设置时不记录。统计范围与查询统计相同。</p>
+	 * @param slowQueryLog
+	 */
+	public void setSlowQueryLog(SlowQueryLog slowQueryLog) {
+		this.slowQueryLog = slowQueryLog;
+	}
+
+	/**
+	 * <p>设置默认的总数统计方式，默认为 {@link CountStrategy#EXACT}。</p>
+	 * @param countStrategy
+	 */
+	public void setCountStrategy(CountStrategy countStrategy) {
+		this.countStrategy = countStrategy;
+	}
+
+	/**
+	 * <p>设置默认的限量统计上限，默认为 {@value #DEFAULT_COUNT_LIMIT}。</p>
+	 * @param countLimit
+	 */
+	public void setCountLimit(int countLimit) {
+		this.countLimit = countLimit;
+	}
+
+	/**
+	 * <p>设置是否默认并发执行总数统计和分页数据查询，默认为 false。</p>
+	 * @param concurrentCount
+	 */
+	public void setConcurrentCount(boolean concurrentCount) {
+		this.concurrentCount = concurrentCount;
+	}
+
+	/**
+	 * <p>设置连接池繁忙比例，默认为 {@value #DEFAULT_POOL_BUSY_RATIO}。活动连接数达到最大连接数的该比例时视为繁忙，
+	 * 不再并发统计总数，慢查询日志也不再获取执行计划；大于 1 时从不视为繁忙。</p>
+	 * @param poolBusyRatio
+	 */
+	public void setPoolBusyRatio(double poolBusyRatio) {
+		this.poolBusyRatio = poolBusyRatio;
+	}
+
+	/**
+	 * <p>设置并发统计使用的线程池。默认使用 {@value #DEFAULT_COUNT_THREADS} 个线程、不排队的线程池，线程全忙时退回到调用线程统计。</p>
+	 * @param countExecutor
+	 */
+	public void setCountExecutor(ExecutorService countExecutor) {
+		this.countExecutor = countExecutor;
+	}
+
+	/**
+	 * <p>设置 IN 条件拆分查询的参数个数，默认为 {@value #DEFAULT_IN_SPLIT_SIZE}，小于等于 0 时不拆分。</p>
+	 * <p>不排序的列表查询、逐行查询和总数统计中，去重后参数个数超过该值的 IN 条件拆分为多次查询，结果合并（总数相加）；
+	 * 排序查询、分页查询以及包含分组、去重、聚合的语句不拆分，仍在一条语句中以多个 IN 子句查询。</p>
+	 * @param inSplitSize
+	 */
+	public void setInSplitSize(int inSplitSize) {
+		this.inSplitSize = inSplitSize;
+	}
+
+	/**
+	 * <p>设置流式查询（{@link #queryForEach}、{@link #queryForIterator}）的读取行数，默认使用方言的读取行数，
+	 * MySQL 为流式结果集逐行读取。</p>
+	 * <p>设为正数时按批读取，MySQL 需在连接串中开启 useCursorFetch=true 才会使用服务端游标，否则驱动仍读取全部结果。</p>
+	 * @param streamFetchSize
+	 */
+	public void setStreamFetchSize(Integer streamFetchSize) {
+		this.streamFetchSize = streamFetchSize;
+	}
+
+	/**
+	 * <p>设置批量写入每批的行数，默认为 {@value #DEFAULT_BATCH_SIZE}。多行插入时每批参数个数不超过方言允许的最大参数个数。</p>
+	 * @param batchSize
+	 */
+	public void setBatchSize(int batchSize) {
+		this.batchSize = batchSize;
+	}
+
+	/**
+	 * <p>分页总数及其统计方式。</p>
+	 */
+	private static class PageCount {
+		private final long total;
+		private final CountStrategy strategy;
+		private final boolean exact;
+
+		PageCount(long total, CountStrategy strategy, boolean exact) {
+			this.total = total;
+			this.strategy = strategy;
+			this.exact = exact;
+		}
+
+		boolean isEmpty() {
+			return total < 1;
+		}
+
+		<T> Page<T> emptyPage() {
+			return new CountedPage<T>(Collections.<T> emptyList(), null, 0, strategy, exact);
+		}
+
+		<T> Page<T> page(List<T> content, Pageable pageable) {
+			return new CountedPage<T>(content, pageable, total, strategy, exact);
+		}
+	}
+
+	/**
+	 * <p>键集分页行映射器，记录当前页最后一行的排序键值。</p>
+	 */
+	private static class KeysetRowMapper<T> implements RowMapper<T> {
+		private final RowMapper<T> rowMapper;
+		private final String[] columns;
+		private final int lastRowNum;
+		private Object[] lastKeys;
+
+		KeysetRowMapper(RowMapper<T> rowMapper, String[] columns, int size) {
+			this.rowMapper = rowMapper;
+			this.columns = columns;
+			this.lastRowNum = size - 1;
+		}
+
+		@Override
+		public T mapRow(ResultSet rs, int rowNum) throws SQLException {
+			if (rowNum == lastRowNum) {
+				lastKeys = new Object[columns.length];
+				for (int i = 0; i < columns.length; i++) {
+					lastKeys[i] = rs.getObject(columns[i]);
+				}
+			}
+			return rowMapper.mapRow(rs, rowNum);
+		}
+	}
+
+	/**
+	 * <p>累计行映射耗时。</p>
+	 */
+	private static class TimedRowMapper<T> implements RowMapper<T> {
+		private final RowMapper<T> rowMapper;
+		private long nanos;
+
+		TimedRowMapper(RowMapper<T> rowMapper) {
+			this.rowMapper = rowMapper;
+		}
+
+		@Override
+		public T mapRow(ResultSet rs, int rowNum) throws SQLException {
+			long start = System.nanoTime();
+			try {
+				return rowMapper.mapRow(rs, rowNum);
+			} finally {
+				nanos += System.nanoTime() - start;
+			}
+		}
 	}
 
 }
\ No newline at end of file
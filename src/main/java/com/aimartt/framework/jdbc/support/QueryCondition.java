@@ -4,18 +4,59 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+/**
+ * <p>动态条件查询语句。</p>
+ * <p>生成的 SQL 按查询形状（原始 SQL、条件键及操作符、IN 参数个数、排序字段、后缀）缓存，
+ * 相同形状的查询只绑定参数，SQL 文本保持不变，便于驱动端预编译语句缓存命中。</p>
+ * <p>IN / NOT IN 参数去重并按 2 的幂次补齐，超过 {@link InClause#CHUNK_SIZE} 时拆分为多个 IN 子句，见 {@link InClause}。</p>
+ * <p>原查询语句中包含条件标记时，动态条件直接插入标记处，不再将原查询包装为派生表：</p>
+ * <ul>
+ * <li>{@value #WHERE_MARKER}：替换为 where 1 = 1 AND ...，用于原查询没有 where 子句的位置</li>
+ * <li>{@value #AND_MARKER}：替换为 AND ...，用于原查询已有 where 子句的位置</li>
+ * <li>{@value #ORDER_BY_MARKER}：替换为 order by ...，没有该标记时排序追加在语句末尾</li>
+ * </ul>
+ * <p>条件标记可出现多次（如 union 的各个分支），每处插入相同的条件并重复绑定参数。插入的条件直接引用原查询中的表，
+ * 多表查询时条件键和排序字段应带表别名，如 EQ_o.status。统计查询仍包装原查询（条件已在内部），以保证 group by、union 等查询的统计正确。</p>
+ */
 class QueryCondition {
 
 	final static String QUERY_STRING = " select * from (%s) x where 1 = 1 ";
 	final static String COUNT_QUERY_STRING = " select count(*) from (%s) x ";
 	final static String COUNT_QUERY_STRING2 = " select count(*) from (%s) x where 1 = 1 ";
+	final static String ROW_QUERY_STRING = " select 1 from (%s) x where 1 = 1 ";
+	final static String KEY_QUERY_STRING = " select x.%s as deferred_key from (%s) x where 1 = 1 ";
+
+	/** 条件标记：替换为 where 子句 */
+	public final static String WHERE_MARKER = "/*where*/";
+	/** 条件标记：替换为 AND 连接的条件 */
+	public final static String AND_MARKER = "/*and*/";
+	/** 排序标记：替换为 order by 子句 */
+	public final static String ORDER_BY_MARKER = "/*orderby*/";
+
+	final static String WHERE_STRING = " where 1 = 1 ";
+
+	/** 查询形状缓存的最大数量 */
+	final static int MAXIMUM_SHAPES = 2048;
+
+	/** 按 IN 条件拆分后结果不能直接合并的语句：分组、去重、聚合、分页和联合查询 */
+	static final Pattern NON_SPLITTABLE_QUERY = Pattern.compile(
+			"\\b(?:group\\s+by|distinct|having|limit|union|count|sum|avg|min|max|group_concat)\\b",
+			Pattern.CASE_INSENSITIVE);
+
+	private static final Cache<List<Object>, String> SHAPES = CacheBuilder.newBuilder().maximumSize(MAXIMUM_SHAPES)
+			.build();
 
 	public final String sql;
 	public final Object[] params;
@@ -42,8 +83,19 @@ class QueryCondition {
 	 */
 	public static QueryCondition createResultQuery(String sql, Map<String, Object> conditions,
 			Map<String, Boolean> orderBys) {
-		String countQuery = String.format(QUERY_STRING, sql);
-		return createQuery(countQuery, conditions, orderBys);
+		return createResultQuery(sql, conditions, orderBys, null);
+	}
+
+	/**
+	 * @param sql
+	 * @param conditions
+	 * @param orderBys
+	 * @param suffix 追加在排序之后的语句，如分页语句 limit ?, ?
+	 * @return
+	 */
+	public static QueryCondition createResultQuery(String sql, Map<String, Object> conditions,
+			Map<String, Boolean> orderBys, String suffix) {
+		return createQuery(QUERY_STRING, sql, null, conditions, orderBys, suffix);
 	}
 
 	/**
@@ -52,8 +104,7 @@ class QueryCondition {
 	 * @return
 	 */
 	public static QueryCondition createCountQuery(String sql, Object... objects) {
-		String countQuery = String.format(COUNT_QUERY_STRING, sql);
-		return new QueryCondition(countQuery, objects);
+		return createQuery(COUNT_QUERY_STRING, sql, objects, null, null, null);
 	}
 
 	/**
@@ -62,8 +113,7 @@ class QueryCondition {
 	 * @return
 	 */
 	public static QueryCondition createCountQuery(String sql, Map<String, Object> conditions) {
-		String countQuery = String.format(COUNT_QUERY_STRING2, sql);
-		return createQuery(countQuery, conditions);
+		return createQuery(COUNT_QUERY_STRING2, sql, null, conditions, null, null);
 	}
 
 	/**
@@ -72,71 +122,307 @@ class QueryCondition {
 	 * @return
 	 */
 	public static QueryCondition createQuery(String sql, Map<String, Object> conditions) {
-		return createQuery(sql, conditions, null);
+		return createQuery(null, sql, null, conditions, null, null);
+	}
+
+	/**
+	 * <p>在原查询语句后追加排序和后缀，不包装原查询。</p>
+	 * @param sql
+	 * @param objects 原查询语句中的参数
+	 * @param orderBys
+	 * @param suffix 追加在排序之后的语句，如分页语句 limit ?, ?
+	 * @return
+	 */
+	public static QueryCondition createOrderedQuery(String sql, Object[] objects, Map<String, Boolean> orderBys,
+			String suffix) {
+		return createQuery(null, sql, objects, null, orderBys, suffix);
+	}
+
+	/**
+	 * <p>创建只返回常量列的查询，用于限量统计。</p>
+	 * @param sql
+	 * @param objects
+	 * @param suffix 追加的语句，如 limit ?
+	 * @return
+	 */
+	public static QueryCondition createRowQuery(String sql, Object[] objects, String suffix) {
+		return createQuery(ROW_QUERY_STRING, sql, objects, null, null, suffix);
 	}
 
-	private static QueryCondition createQuery(String sql, Map<String, Object> conditions, Map<String, Boolean> orderBys) {
-		StringBuilder querysql = new StringBuilder(sql);
-		List<SearchFilter> filters = SearchFilter.parse(conditions);
-		List<Object> params = Collections.emptyList();
-		if (filters != null && !filters.isEmpty()) {
-			params = new ArrayList<Object>();
-			filterCondions(filters, querysql, params);
+	/**
+	 * <p>创建只返回常量列的查询，用于限量统计。</p>
+	 * @param sql
+	 * @param conditions
+	 * @param suffix 追加的语句，如 limit ?
+	 * @return
+	 */
+	public static QueryCondition createRowQuery(String sql, Map<String, Object> conditions, String suffix) {
+		return createQuery(ROW_QUERY_STRING, sql, null, conditions, null, suffix);
+	}
+
+	/**
+	 * <p>创建只查询主键的查询，用于延迟关联分页。</p>
+	 * @param sql
+	 * @param objects 原查询语句中的参数
+	 * @param keyColumn 主键列名
+	 * @param conditions
+	 * @param orderBys
+	 * @param suffix 追加在排序之后的语句，如分页语句 limit ?, ?
+	 * @return
+	 */
+	public static QueryCondition createKeyQuery(String sql, Object[] objects, String keyColumn,
+			Map<String, Object> conditions, Map<String, Boolean> orderBys, String suffix) {
+		String keyQuery = String.format(KEY_QUERY_STRING, keyColumn, sql);
+		return createQuery(null, keyQuery, objects, conditions, orderBys, suffix);
+	}
+
+	/**
+	 * <p>创建键集分页查询：在动态条件之后追加排序键越过上一页最后一行的条件，并按排序键排序。</p>
+	 * <ul>
+	 * <li>排序方向一致且使用行值比较时：(k1, k2) &gt; (?, ?)</li>
+	 * <li>其它情况：(k1 &gt; ?) OR (k1 = ? AND k2 &lt; ?)</li>
+	 * </ul>
+	 * @param sql
+	 * @param conditions
+	 * @param orderBys 排序键（最后一个排序键须唯一，如主键）
+	 * @param lastKeys 上一页最后一行的排序键值，第一页为 null
+	 * @param suffix 追加在排序之后的语句，如 limit ?
+	 * @param rowValues 排序方向一致时是否使用行值比较
+	 * @return
+	 */
+	public static QueryCondition createKeysetQuery(String sql, Map<String, Object> conditions,
+			Map<String, Boolean> orderBys, Object[] lastKeys, String suffix, boolean rowValues) {
+		Assert.notEmpty(orderBys, "键集分页必须指定排序字段!");
+		List<SearchFilter> filters = padInValues(SearchFilter.parse(conditions));
+		StringBuilder predicates = new StringBuilder();
+		List<Object> predicateParams = new ArrayList<Object>();
+		filterCondions(filters, predicates);
+		filterParams(filters, predicateParams);
+		if (lastKeys != null) {
+			keysetCondition(predicates, orderBys, lastKeys, rowValues, predicateParams);
 		}
-		if (orderBys != null && !orderBys.isEmpty()) {
+		StringBuilder querysql;
+		List<Object> params;
+		int markers = markers(sql);
+		if (markers > 0) {
+			querysql = new StringBuilder(pushDown(sql, predicates.toString(), orderBys));
+			params = new ArrayList<Object>(predicateParams.size() * markers);
+			for (int i = 0; i < markers; i++) {
+				params.addAll(predicateParams);
+			}
+		} else {
+			querysql = new StringBuilder(String.format(QUERY_STRING, sql)).append(predicates);
+			params = predicateParams;
+		}
+		if (markers == 0 || !sql.contains(ORDER_BY_MARKER)) {
 			orderBy(querysql, orderBys);
 		}
+		if (suffix != null) {
+			querysql.append(suffix);
+		}
 		return new QueryCondition(querysql.toString(), params.toArray());
 	}
 
+	/**
+	 * <p>按查询形状取缓存的 SQL，未缓存时生成并缓存；参数每次重新绑定。</p>
+	 * <p>原查询包含条件标记时，条件插入标记处；结果查询不再包装，排序插入排序标记处（没有时追加在末尾），
+	 * 其它查询仍按 format 包装，排序追加在末尾。</p>
+	 * @param format 包装原查询的格式，为空时不包装
+	 * @param sql 原查询语句
+	 * @param objects 原查询语句中的参数
+	 * @param conditions 动态条件
+	 * @param orderBys 排序
+	 * @param suffix 追加在排序之后的语句
+	 * @return
+	 */
+	private static QueryCondition createQuery(String format, String sql, Object[] objects,
+			Map<String, Object> conditions, Map<String, Boolean> orderBys, String suffix) {
+		List<SearchFilter> filters = padInValues(SearchFilter.parse(conditions));
+		List<Object> shape = shapeOf(format, sql, filters, orderBys, suffix);
+		String querysql = SHAPES.getIfPresent(shape);
+		int markers = markers(sql);
+		if (querysql == null) {
+			boolean ordered = orderBys != null && !orderBys.isEmpty();
+			StringBuilder sqlbuilder;
+			if (markers > 0) {
+				boolean resultQuery = QUERY_STRING.equals(format);
+				StringBuilder predicates = new StringBuilder();
+				filterCondions(filters, predicates);
+				String pushed = pushDown(sql, predicates.toString(), resultQuery ? orderBys : null);
+				sqlbuilder = new StringBuilder((format != null && !resultQuery) ? String.format(format, pushed) : pushed);
+				ordered &= !(resultQuery && sql.contains(ORDER_BY_MARKER));
+			} else {
+				sqlbuilder = new StringBuilder((format != null) ? String.format(format, sql) : sql);
+				filterCondions(filters, sqlbuilder);
+			}
+			if (ordered) {
+				orderBy(sqlbuilder, orderBys);
+			}
+			if (suffix != null) {
+				sqlbuilder.append(suffix);
+			}
+			querysql = sqlbuilder.toString();
+			SHAPES.put(shape, querysql);
+		}
+		List<Object> params = new ArrayList<Object>(filters.size() + ((objects != null) ? objects.length : 0) + 2);
+		if (objects != null) {
+			params.addAll(Arrays.asList(objects));
+		}
+		for (int i = 0, repeats = Math.max(markers, 1); i < repeats; i++) {
+			filterParams(filters, params);
+		}
+		return new QueryCondition(querysql, params.toArray());
+	}
+
+	/**
+	 * 原查询中条件标记（{@value #WHERE_MARKER}、{@value #AND_MARKER}）出现的次数
+	 */
+	private static int markers(String sql) {
+		if (sql.indexOf("/*") < 0) {
+			return 0;
+		}
+		return StringUtils.countOccurrencesOf(sql, WHERE_MARKER) + StringUtils.countOccurrencesOf(sql, AND_MARKER);
+	}
+
+	/**
+	 * 将条件插入条件标记处，排序插入排序标记处
+	 * @param sql 原查询语句
+	 * @param predicates 以 AND 开头的条件
+	 * @param orderBys 排序，为空时只去掉排序标记
+	 */
+	private static String pushDown(String sql, String predicates, Map<String, Boolean> orderBys) {
+		String pushed = StringUtils.replace(sql, WHERE_MARKER, WHERE_STRING + predicates);
+		pushed = StringUtils.replace(pushed, AND_MARKER, predicates);
+		String orderClause = "";
+		if (orderBys != null && !orderBys.isEmpty()) {
+			StringBuilder orderBuilder = new StringBuilder();
+			orderBy(orderBuilder, orderBys);
+			orderClause = orderBuilder.toString();
+		}
+		return StringUtils.replace(pushed, ORDER_BY_MARKER, orderClause);
+	}
+
+	/**
+	 * <p>按 IN 条件拆分动态条件：参数去重后个数超过 splitSize 的 IN 条件（取参数最多的一个）按 splitSize 拆分，
+	 * 每份生成一组条件，其余条件不变。各组条件的查询结果互不重复，可直接合并。
+	 * 原语句包含分组、去重、聚合、分页或联合查询时，各组结果会重复计数或重复出现，不拆分。</p>
+	 * @param sql 原查询语句
+	 * @param conditions 动态条件
+	 * @param splitSize 拆分大小，小于等于 0 时不拆分
+	 * @return 不需要拆分时返回只包含原条件的列表
+	 */
+	static List<Map<String, Object>> splitConditions(String sql, Map<String, Object> conditions, int splitSize) {
+		if (conditions == null || splitSize <= 0 || NON_SPLITTABLE_QUERY.matcher(sql).find()) {
+			return Collections.singletonList(conditions);
+		}
+		String splitKey = null;
+		List<Object> splitValues = null;
+		for (Map.Entry<String, Object> entry : conditions.entrySet()) {
+			if (InClause.isMultiValued(entry.getValue())
+					&& SearchFilter.operatorOf(entry.getKey()) == SearchFilter.Operator.IN) {
+				List<Object> values = InClause.distinct(entry.getValue());
+				if (values.size() > splitSize && (splitValues == null || values.size() > splitValues.size())) {
+					splitKey = entry.getKey();
+					splitValues = values;
+				}
+			}
+		}
+		if (splitKey == null) {
+			return Collections.singletonList(conditions);
+		}
+		List<Map<String, Object>> splits = new ArrayList<Map<String, Object>>();
+		for (int i = 0; i < splitValues.size(); i += splitSize) {
+			Map<String, Object> split = new LinkedHashMap<String, Object>(conditions);
+			split.put(splitKey, splitValues.subList(i, Math.min(i + splitSize, splitValues.size())));
+			splits.add(split);
+		}
+		return splits;
+	}
+
+	/**
+	 * IN / NOT IN 参数去重并补齐
+	 */
+	private static List<SearchFilter> padInValues(List<SearchFilter> filters) {
+		for (SearchFilter filter : filters) {
+			if ((filter.operator == SearchFilter.Operator.IN || filter.operator == SearchFilter.Operator.NOTIN)
+					&& InClause.isMultiValued(filter.value)) {
+				filter.value = InClause.pad(filter.value);
+			}
+		}
+		return filters;
+	}
+
+	/**
+	 * 查询形状
+	 */
+	private static List<Object> shapeOf(String format, String sql, List<SearchFilter> filters,
+			Map<String, Boolean> orderBys, String suffix) {
+		List<Object> shape = new ArrayList<Object>(4 + filters.size() * 3 + ((orderBys != null) ? orderBys.size() * 2 : 0));
+		shape.add(format);
+		shape.add(sql);
+		shape.add(suffix);
+		for (SearchFilter filter : filters) {
+			shape.add(filter.operator);
+			shape.add(filter.originalFieldName);
+			shape.add(arity(filter.value));
+		}
+		if (orderBys != null) {
+			for (Map.Entry<String, Boolean> entry : orderBys.entrySet()) {
+				shape.add(entry.getKey());
+				shape.add(entry.getValue());
+			}
+		}
+		return shape;
+	}
+
+	/**
+	 * 条件值个数，非集合或数组时为 -1
+	 */
+	private static int arity(Object value) {
+		if (value instanceof Collection) {
+			return ((Collection<?>) value).size();
+		}
+		if (value instanceof Object[]) {
+			return ((Object[]) value).length;
+		}
+		return -1;
+	}
+
 	/**
 	 * 添加查询过滤条件
 	 * @param filters
-	 * @param sql
-	 * @param params
+	 * @param querysql
 	 */
-	private static void filterCondions(List<SearchFilter> filters, StringBuilder querysql, Collection<Object> params) {
+	private static void filterCondions(List<SearchFilter> filters, StringBuilder querysql) {
 		for (SearchFilter filter : filters) {
 			switch (filter.operator) {
 				case EQ:
 					querysql.append(" AND ").append(filter.originalFieldName).append(" = ? ");
-					params.add(filter.value);
 					break;
 				case NOTEQ:
 					querysql.append(" AND ").append(filter.originalFieldName).append(" <> ? ");
-					params.add(filter.value);
 					break;
 				case LIKE:
-					querysql.append(" AND ").append(filter.originalFieldName).append(" like ? ");
-					params.add("%" + filter.value + "%");
-					break;
 				case LLIKE:
 					querysql.append(" AND ").append(filter.originalFieldName).append(" like ? ");
-					params.add("%" + filter.value);
 					break;
 				case RLIKE:
 					querysql.append(" AND ").append(filter.originalFieldName).append(" LIKE ? ");
-					params.add(filter.value + "%");
 					break;
 				case NLIKE:
 					querysql.append(" AND ").append(filter.originalFieldName).append(" NOT LIKE ? ");
-					params.add(filter.value + "%");
 					break;
 				case GT:
 					querysql.append(" AND ").append(filter.originalFieldName).append(" > ? ");
-					params.add(filter.value);
 					break;
 				case LT:
 					querysql.append(" AND ").append(filter.originalFieldName).append(" < ? ");
-					params.add(filter.value);
 					break;
 				case GTE:
 					querysql.append(" AND ").append(filter.originalFieldName).append(" >= ? ");
-					params.add(filter.value);
 					break;
 				case LTE:
 					querysql.append(" AND ").append(filter.originalFieldName).append(" <= ? ");
-					params.add(filter.value);
 					break;
 				case NULL:
 					querysql.append(" AND ").append(filter.originalFieldName).append(" IS NULL ");
@@ -145,65 +431,147 @@ class QueryCondition {
 					querysql.append(" AND ").append(filter.originalFieldName).append(" IS NOT NULL ");
 					break;
 				case IN:
-					if (filter.value instanceof Collection) {
-						querysql.append(" AND ").append(filter.originalFieldName).append(" IN ( ");
-						Collection<?> cs = (Collection<?>) filter.value;
-						for (int i = 0; cs != null && i < cs.size(); i++) {
-							querysql.append(" ? ");
-							if (i + 1 < cs.size()) {
-								querysql.append(",");
-							}
-						}
-						querysql.append(" ) ");
-						params.addAll(cs);
-					} else if (filter.value instanceof Object[]) {
-						querysql.append(" AND ").append(filter.originalFieldName).append(" IN ( ");
-						Object[] cs = (Object[]) filter.value;
-						for (int i = 0; cs != null && i < cs.length; i++) {
-							querysql.append(" ? ");
-							if (i + 1 < cs.length) {
-								querysql.append(",");
-							}
-						}
-						querysql.append(" ) ");
-						params.addAll(Arrays.asList(cs));
-					} else {
-						querysql.append(" AND ").append(filter.originalFieldName).append(" IN ( ? ) ");
-						params.add(filter.value);
-					}
+					inCondition(querysql, filter.originalFieldName, false, arity(filter.value));
+					break;
+				case NOTIN:
+					inCondition(querysql, filter.originalFieldName, true, arity(filter.value));
+					break;
+				default:
+					throw new NullPointerException("查询方式未定义!");
+			}
+		}
+	}
+
+	/**
+	 * IN / NOT IN 条件，参数超过 {@link InClause#CHUNK_SIZE} 时拆分为多个子句：IN 以 OR 连接，NOT IN 以 AND 连接
+	 */
+	private static void inCondition(StringBuilder querysql, String column, boolean not, int arity) {
+		if (arity == 0) {
+			// 空集合：IN 不匹配任何行，NOT IN 不过滤
+			if (!not) {
+				querysql.append(" AND 1 = 0 ");
+			}
+			return;
+		}
+		boolean chunked = arity > InClause.CHUNK_SIZE;
+		querysql.append(chunked ? " AND ( " : " AND ");
+		int remaining = (arity < 0) ? 1 : arity;
+		while (remaining > 0) {
+			querysql.append(column).append(not ? " NOT IN ( " : " IN ( ");
+			if (arity < 0) {
+				querysql.append("? ");
+			} else {
+				inParameters(querysql, Math.min(remaining, InClause.CHUNK_SIZE));
+			}
+			querysql.append(" ) ");
+			remaining -= InClause.CHUNK_SIZE;
+			if (remaining > 0) {
+				querysql.append(not ? " AND " : " OR ");
+			}
+		}
+		if (chunked) {
+			querysql.append(") ");
+		}
+	}
+
+	/**
+	 * IN 参数占位符
+	 */
+	private static void inParameters(StringBuilder querysql, int arity) {
+		for (int i = 0; i < arity; i++) {
+			querysql.append(" ? ");
+			if (i + 1 < arity) {
+				querysql.append(",");
+			}
+		}
+	}
+
+	/**
+	 * 绑定查询过滤条件参数
+	 * @param filters
+	 * @param params
+	 */
+	private static void filterParams(List<SearchFilter> filters, Collection<Object> params) {
+		for (SearchFilter filter : filters) {
+			switch (filter.operator) {
+				case LIKE:
+					params.add("%" + filter.value + "%");
+					break;
+				case LLIKE:
+					params.add("%" + filter.value);
 					break;
+				case RLIKE:
+				case NLIKE:
+					params.add(filter.value + "%");
+					break;
+				case NULL:
+				case NOTNULL:
+					break;
+				case IN:
 				case NOTIN:
 					if (filter.value instanceof Collection) {
-						querysql.append(" AND ").append(filter.originalFieldName).append(" NOT IN ( ");
-						Collection<?> cs = (Collection<?>) filter.value;
-						for (int i = 0; cs != null && i < cs.size(); i++) {
-							querysql.append(" ? ");
-							if (i + 1 < cs.size()) {
-								querysql.append(",");
-							}
-						}
-						querysql.append(" ) ");
-						params.addAll(cs);
+						params.addAll((Collection<?>) filter.value);
 					} else if (filter.value instanceof Object[]) {
-						querysql.append(" AND ").append(filter.originalFieldName).append(" NOT IN ( ");
-						Object[] cs = (Object[]) filter.value;
-						for (int i = 0; cs != null && i < cs.length; i++) {
-							querysql.append(" ? ");
-							if (i + 1 < cs.length) {
-								querysql.append(",");
-							}
-						}
-						querysql.append(" ) ");
-						params.addAll(Arrays.asList(cs));
+						params.addAll(Arrays.asList((Object[]) filter.value));
 					} else {
-						querysql.append(" AND ").append(filter.originalFieldName).append(" NOT IN ( ? ) ");
 						params.add(filter.value);
 					}
 					break;
 				default:
-					throw new NullPointerException("查询方式未定义!");
+					params.add(filter.value);
+					break;
+			}
+		}
+	}
+
+	/**
+	 * 键集分页条件
+	 * @param querysql
+	 * @param orderBys
+	 * @param lastKeys
+	 * @param params
+	 */
+	private static void keysetCondition(StringBuilder querysql, Map<String, Boolean> orderBys, Object[] lastKeys,
+			boolean rowValues, Collection<Object> params) {
+		String[] columns = new String[orderBys.size()];
+		boolean[] ascs = new boolean[columns.length];
+		boolean sameDirection = true;
+		int i = 0;
+		for (Map.Entry<String, Boolean> entry : orderBys.entrySet()) {
+			columns[i] = SearchFilter.coverdColumnName(entry.getKey());
+			ascs[i] = entry.getValue();
+			sameDirection &= (ascs[i] == ascs[0]);
+			i++;
+		}
+		if (sameDirection && (rowValues || columns.length == 1)) {
+			String op = ascs[0] ? " > " : " < ";
+			if (columns.length == 1) {
+				querysql.append(" AND ").append(columns[0]).append(op).append("? ");
+			} else {
+				querysql.append(" AND (");
+				for (i = 0; i < columns.length; i++) {
+					querysql.append((i > 0) ? ", " : "").append(columns[i]);
+				}
+				querysql.append(")").append(op).append("(");
+				for (i = 0; i < columns.length; i++) {
+					querysql.append((i > 0) ? ", ?" : "?");
+				}
+				querysql.append(") ");
+			}
+			params.addAll(Arrays.asList(lastKeys));
+			return;
+		}
+		querysql.append(" AND (");
+		for (i = 0; i < columns.length; i++) {
+			querysql.append((i > 0) ? " OR (" : "(");
+			for (int j = 0; j < i; j++) {
+				querysql.append(columns[j]).append(" = ? AND ");
+				params.add(lastKeys[j]);
 			}
+			querysql.append(columns[i]).append(ascs[i] ? " > ?" : " < ?").append(")");
+			params.add(lastKeys[i]);
 		}
+		querysql.append(") ");
 	}
 
 	/**
@@ -0,0 +1,191 @@
+package com.aimartt.framework.jdbc.support;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import com.aimartt.framework.exception.BusinessException;
+
+/**
+ * <p>按 SQL 形状（见 {@link SqlShape}）统计查询耗时。</p>
+ * <p>每个形状分别统计总数查询、数据查询和行映射的耗时直方图，以及返回行数和失败次数，记录过程无锁。
+ * 形状数量有上限，超出上限的新形状只计入 {@link #getOverflowCount()}。</p>
+ * <p>统计可通过 {@link #snapshot()} 读取，或通过 {@link #register(String)} 发布到 JMX。</p>
+ */
+public class QueryMetrics implements QueryMetricsMXBean {
+
+	/** 默认最大形状数量 */
+	public static final int DEFAULT_MAXIMUM_SHAPES = 500;
+
+	/** JMX 对象名 */
+	public static final String OBJECT_NAME = "com.aimartt.framework.jdbc:type=QueryMetrics,name=%s";
+
+	private final ConcurrentMap<String, ShapeMetrics> shapes = new ConcurrentHashMap<String, ShapeMetrics>();
+
+	private final int maximumShapes;
+
+	private final AtomicLong overflowCount = new AtomicLong();
+
+	private ObjectName objectName;
+
+	public QueryMetrics() {
+		this(DEFAULT_MAXIMUM_SHAPES);
+	}
+
+	/**
+	 * @param maximumShapes 最大形状数量
+	 */
+	public QueryMetrics(int maximumShapes) {
+		this.maximumShapes = maximumShapes;
+	}
+
+	/**
+	 * <p>记录一次总数查询。</p>
+	 * @param sql 执行的 SQL
+	 * @param nanos 耗时（纳秒）
+	 */
+	void recordCount(String sql, long nanos) {
+		ShapeMetrics metrics = metrics(sql);
+		if (metrics != null) {
+			metrics.count.record(nanos);
+		}
+	}
+
+	/**
+	 * <p>记录一次数据查询。</p>
+	 * @param sql 执行的 SQL
+	 * @param nanos 总耗时（纳秒），包括行映射
+	 * @param mappingNanos 行映射耗时（纳秒）
+	 * @param rows 返回行数
+	 */
+	void recordContent(String sql, long nanos, long mappingNanos, int rows) {
+		ShapeMetrics metrics = metrics(sql);
+		if (metrics != null) {
+			metrics.content.record(nanos - mappingNanos);
+			metrics.mapping.record(mappingNanos);
+			metrics.rows.addAndGet(rows);
+		}
+	}
+
+	/**
+	 * <p>记录一次失败的查询。</p>
+	 * @param sql 执行的 SQL
+	 */
+	void recordError(String sql) {
+		ShapeMetrics metrics = metrics(sql);
+		if (metrics != null) {
+			metrics.errors.incrementAndGet();
+		}
+	}
+
+	/**
+	 * <p>各 SQL 形状的统计快照，按总耗时降序。</p>
+	 * @return
+	 */
+	public List<QueryShapeStats> snapshot() {
+		List<QueryShapeStats> stats = new ArrayList<QueryShapeStats>(shapes.size());
+		for (Map.Entry<String, ShapeMetrics> entry : shapes.entrySet()) {
+			ShapeMetrics metrics = entry.getValue();
+			stats.add(new QueryShapeStats(entry.getKey(), metrics.count.snapshot(), metrics.content.snapshot(),
+					metrics.mapping.snapshot(), metrics.rows.get(), metrics.errors.get()));
+		}
+		Collections.sort(stats, new Comparator<QueryShapeStats>() {
+			@Override
+			public int compare(QueryShapeStats o1, QueryShapeStats o2) {
+				long t1 = o1.getTotalMicros();
+				long t2 = o2.getTotalMicros();
+				return (t1 < t2) ? 1 : ((t1 == t2) ? 0 : -1);
+			}
+		});
+		return stats;
+	}
+
+	@Override
+	public List<QueryShapeStats> getShapes() {
+		return snapshot();
+	}
+
+	@Override
+	public int getShapeCount() {
+		return shapes.size();
+	}
+
+	@Override
+	public long getOverflowCount() {
+		return overflowCount.get();
+	}
+
+	@Override
+	public void reset() {
+		shapes.clear();
+		overflowCount.set(0);
+	}
+
+	/**
+	 * <p>注册到平台 MBeanServer，对象名为 {@link #OBJECT_NAME}。</p>
+	 * @param name 名称，区分多个查询模板
+	 */
+	public synchronized void register(String name) {
+		unregister();
+		try {
+			ObjectName objectName = new ObjectName(String.format(OBJECT_NAME, ObjectName.quote(name)));
+			ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+			this.objectName = objectName;
+		} catch (JMException e) {
+			throw new BusinessException(String.format("注册查询统计[%s]失败!", name), e);
+		}
+	}
+
+	/**
+	 * <p>从平台 MBeanServer 注销。</p>
+	 */
+	public synchronized void unregister() {
+		if (objectName == null) {
+			return;
+		}
+		try {
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			if (server.isRegistered(objectName)) {
+				server.unregisterMBean(objectName);
+			}
+		} catch (JMException e) {
+			throw new BusinessException(String.format("注销查询统计[%s]失败!", objectName), e);
+		} finally {
+			objectName = null;
+		}
+	}
+
+	private ShapeMetrics metrics(String sql) {
+		String shape = SqlShape.of(sql);
+		ShapeMetrics metrics = shapes.get(shape);
+		if (metrics == null) {
+			if (shapes.size() >= maximumShapes) {
+				overflowCount.incrementAndGet();
+				return null;
+			}
+			ShapeMetrics created = new ShapeMetrics();
+			metrics = shapes.putIfAbsent(shape, created);
+			metrics = (metrics != null) ? metrics : created;
+		}
+		return metrics;
+	}
+
+	private static final class ShapeMetrics {
+		private final LatencyHistogram count = new LatencyHistogram();
+		private final LatencyHistogram content = new LatencyHistogram();
+		private final LatencyHistogram mapping = new LatencyHistogram();
+		private final AtomicLong rows = new AtomicLong();
+		private final AtomicLong errors = new AtomicLong();
+	}
+
+}
@@ -0,0 +1,33 @@
+package com.aimartt.framework.jdbc.support;
+
+import java.util.List;
+
+/**
+ * <p>查询统计的 JMX 接口。</p>
+ */
+public interface QueryMetricsMXBean {
+
+	/**
+	 * <p>各 SQL 形状的统计，按总耗时降序。</p>
+	 * @return
+	 */
+	List<QueryShapeStats> getShapes();
+
+	/**
+	 * <p>统计的 SQL 形状数量。</p>
+	 * @return
+	 */
+	int getShapeCount();
+
+	/**
+	 * <p>形状数量达到上限后未单独统计的查询次数。</p>
+	 * @return
+	 */
+	long getOverflowCount();
+
+	/**
+	 * <p>清空统计。</p>
+	 */
+	void reset();
+
+}
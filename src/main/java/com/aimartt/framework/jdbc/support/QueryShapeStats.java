@@ -0,0 +1,82 @@
+package com.aimartt.framework.jdbc.support;
+
+/**
+ * <p>单个 SQL 形状的统计快照。</p>
+ * <p>统计查询和数据查询的耗时为执行语句和读取结果的时间，不含行映射；行映射耗时为每次查询映射全部行的时间。</p>
+ */
+public final class QueryShapeStats {
+
+	private final String shape;
+	private final LatencyHistogram.Snapshot count;
+	private final LatencyHistogram.Snapshot content;
+	private final LatencyHistogram.Snapshot mapping;
+	private final long rows;
+	private final long errors;
+
+	QueryShapeStats(String shape, LatencyHistogram.Snapshot count, LatencyHistogram.Snapshot content,
+			LatencyHistogram.Snapshot mapping, long rows, long errors) {
+		this.shape = shape;
+		this.count = count;
+		this.content = content;
+		this.mapping = mapping;
+		this.rows = rows;
+		this.errors = errors;
+	}
+
+	/**
+	 * <p>SQL 形状。</p>
+	 * @return
+	 */
+	public String getShape() {
+		return shape;
+	}
+
+	/**
+	 * <p>统计查询耗时。</p>
+	 * @return
+	 */
+	public LatencyHistogram.Snapshot getCount() {
+		return count;
+	}
+
+	/**
+	 * <p>数据查询耗时。</p>
+	 * @return
+	 */
+	public LatencyHistogram.Snapshot getContent() {
+		return content;
+	}
+
+	/**
+	 * <p>行映射耗时。</p>
+	 * @return
+	 */
+	public LatencyHistogram.Snapshot getMapping() {
+		return mapping;
+	}
+
+	/**
+	 * <p>数据查询返回的总行数。</p>
+	 * @return
+	 */
+	public long getRows() {
+		return rows;
+	}
+
+	/**
+	 * <p>执行失败的次数。</p>
+	 * @return
+	 */
+	public long getErrors() {
+		return errors;
+	}
+
+	/**
+	 * <p>统计查询、数据查询和行映射的总耗时（微秒）。</p>
+	 * @return
+	 */
+	public long getTotalMicros() {
+		return count.getTotalMicros() + content.getTotalMicros() + mapping.getTotalMicros();
+	}
+
+}
@@ -0,0 +1,193 @@
+package com.aimartt.framework.jdbc.support;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.util.StringUtils;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.RemovalCause;
+import com.google.common.cache.RemovalListener;
+import com.google.common.cache.RemovalNotification;
+
+/**
+ * <p>查询结果缓存。</p>
+ * <p>按最终执行的 SQL、绑定参数和结果类型缓存查询结果，缓存数量有上限（超出时淘汰最近最少使用的结果），写入后按过期时间失效。
+ * 每个结果标记其查询涉及的表，{@link #invalidate(String...)} 清除标记了指定表的全部结果。</p>
+ * <p>缓存的实体对象在多次查询间共享，调用方不应修改。</p>
+ */
+public class ResultCache {
+
+	/** 默认过期时间（秒） */
+	public static final long DEFAULT_EXPIRE_SECONDS = 60;
+	/** 默认最大缓存数量 */
+	public static final long DEFAULT_MAXIMUM_SIZE = 1000;
+
+	private final Cache<StatementKey, CachedResult> cache;
+
+	/** 表名到结果的索引 */
+	private final ConcurrentMap<String, Set<StatementKey>> tags = new ConcurrentHashMap<String, Set<StatementKey>>();
+
+	/** 每次清除缓存时递增，查询期间发生清除的结果不再缓存 */
+	private final AtomicLong generation = new AtomicLong();
+
+	private final AtomicLong invalidationCount = new AtomicLong();
+
+	public ResultCache() {
+		this(DEFAULT_EXPIRE_SECONDS, DEFAULT_MAXIMUM_SIZE);
+	}
+
+	/**
+	 * @param expireSeconds 过期时间（秒）
+	 * @param maximumSize 最大缓存数量
+	 */
+	public ResultCache(long expireSeconds, long maximumSize) {
+		this.cache = CacheBuilder.newBuilder().expireAfterWrite(expireSeconds, TimeUnit.SECONDS)
+				.maximumSize(maximumSize).recordStats()
+				.removalListener(new RemovalListener<StatementKey, CachedResult>() {
+					@Override
+					public void onRemoval(RemovalNotification<StatementKey, CachedResult> notification) {
+						// 替换时新结果使用相同的标记，不清除
+						if (notification.getKey() != null && notification.getValue() != null
+								&& notification.getCause() != RemovalCause.REPLACED) {
+							untag(notification.getKey(), notification.getValue().tables);
+						}
+					}
+				}).build();
+	}
+
+	/**
+	 * <p>获取缓存的结果，未缓存时执行查询并缓存。</p>
+	 * @param sql 最终执行的 SQL
+	 * @param params 绑定参数
+	 * @param type 结果类型
+	 * @param tables 查询涉及的表
+	 * @param loader 查询
+	 * @return
+	 */
+	@SuppressWarnings("unchecked")
+	<V> V get(String sql, Object[] params, Class<?> type, String[] tables, Callable<V> loader) {
+		StatementKey key = new StatementKey(sql, params, type);
+		CachedResult cached = cache.getIfPresent(key);
+		if (cached != null) {
+			return (V) cached.value;
+		}
+		long current = generation.get();
+		V value = SingleFlight.call(loader);
+		String[] names = normalize(tables);
+		for (String name : names) {
+			Set<StatementKey> keys = tags.get(name);
+			if (keys == null) {
+				Set<StatementKey> created = Collections.newSetFromMap(new ConcurrentHashMap<StatementKey, Boolean>());
+				keys = tags.putIfAbsent(name, created);
+				keys = (keys != null) ? keys : created;
+			}
+			keys.add(key);
+		}
+		CachedResult result = new CachedResult(value, names);
+		cache.put(key, result);
+		// 查询或写入缓存期间发生清除时移除结果，清除可能已在标记或写入前执行
+		if (generation.get() != current && cache.asMap().remove(key, result)) {
+			untag(key, names);
+		}
+		return value;
+	}
+
+	/**
+	 * <p>清除标记了指定表的结果，未指定表时清除全部缓存。</p>
+	 * @param tables 表名
+	 */
+	public void invalidate(String... tables) {
+		if (tables == null || tables.length == 0) {
+			invalidateAll();
+			return;
+		}
+		generation.incrementAndGet();
+		for (String name : normalize(tables)) {
+			Set<StatementKey> keys = tags.get(name);
+			if (keys == null) {
+				continue;
+			}
+			for (StatementKey key : keys) {
+				if (cache.asMap().remove(key) != null) {
+					invalidationCount.incrementAndGet();
+				}
+				keys.remove(key);
+			}
+		}
+	}
+
+	/**
+	 * <p>清除全部缓存。</p>
+	 */
+	public void invalidateAll() {
+		generation.incrementAndGet();
+		invalidationCount.addAndGet(cache.size());
+		cache.invalidateAll();
+	}
+
+	/**
+	 * <p>缓存命中统计，淘汰数（evictionCount）包括超出数量上限和过期的结果，不包括按表清除的结果。</p>
+	 * @return
+	 */
+	public CacheStats stats() {
+		return cache.stats();
+	}
+
+	/**
+	 * <p>按表清除的结果数量。</p>
+	 * @return
+	 */
+	public long invalidationCount() {
+		return invalidationCount.get();
+	}
+
+	/**
+	 * <p>当前缓存的结果数量。</p>
+	 * @return
+	 */
+	public long size() {
+		return cache.size();
+	}
+
+	private void untag(StatementKey key, String[] tables) {
+		for (String name : tables) {
+			Set<StatementKey> keys = tags.get(name);
+			if (keys != null) {
+				keys.remove(key);
+			}
+		}
+	}
+
+	/**
+	 * 表名统一为小写，去掉引号
+	 */
+	private static String[] normalize(String[] tables) {
+		if (tables == null) {
+			return new String[0];
+		}
+		String[] names = new String[tables.length];
+		for (int i = 0; i < tables.length; i++) {
+			names[i] = StringUtils.deleteAny(tables[i].trim(), "`\"").toLowerCase();
+		}
+		return names;
+	}
+
+	private static final class CachedResult {
+		private final Object value;
+		private final String[] tables;
+
+		CachedResult(Object value, String[] tables) {
+			this.value = value;
+			this.tables = tables;
+		}
+	}
+
+}
@@ -0,0 +1,96 @@
+package com.aimartt.framework.jdbc.support;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.NoSuchElementException;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.SQLExceptionTranslator;
+
+import com.aimartt.framework.jdbc.CloseableIterator;
+
+/**
+ * <p>逐行映射结果集的迭代器，遍历结束或出错时自动关闭结果集、语句并释放连接。</p>
+ * @param <T> 实体类型
+ */
+class ResultSetIterator<T> implements CloseableIterator<T> {
+
+	private final DataSource dataSource;
+	private final Connection connection;
+	private final PreparedStatement statement;
+	private final ResultSet resultSet;
+	private final RowMapper<T> rowMapper;
+	private final SQLExceptionTranslator exceptionTranslator;
+	private final String sql;
+
+	private int rowNum = 0;
+	private Boolean ready;
+	private boolean closed = false;
+
+	ResultSetIterator(DataSource dataSource, Connection connection, PreparedStatement statement, ResultSet resultSet,
+			RowMapper<T> rowMapper, SQLExceptionTranslator exceptionTranslator, String sql) {
+		this.dataSource = dataSource;
+		this.connection = connection;
+		this.statement = statement;
+		this.resultSet = resultSet;
+		this.rowMapper = rowMapper;
+		this.exceptionTranslator = exceptionTranslator;
+		this.sql = sql;
+	}
+
+	@Override
+	public boolean hasNext() {
+		if (ready == null) {
+			if (closed) {
+				return false;
+			}
+			try {
+				ready = resultSet.next();
+			} catch (SQLException e) {
+				close();
+				throw exceptionTranslator.translate("ResultSetIterator", sql, e);
+			}
+			if (!ready) {
+				close();
+			}
+		}
+		return ready;
+	}
+
+	@Override
+	public T next() {
+		if (!hasNext()) {
+			throw new NoSuchElementException();
+		}
+		ready = null;
+		try {
+			return rowMapper.mapRow(resultSet, rowNum++);
+		} catch (SQLException e) {
+			close();
+			throw exceptionTranslator.translate("ResultSetIterator", sql, e);
+		}
+	}
+
+	@Override
+	public void remove() {
+		throw new UnsupportedOperationException("查询结果不支持删除!");
+	}
+
+	@Override
+	public void close() {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		JdbcUtils.closeResultSet(resultSet);
+		JdbcUtils.closeStatement(statement);
+		DataSourceUtils.releaseConnection(connection, dataSource);
+	}
+
+}
@@ -1,6 +1,7 @@
 package com.aimartt.framework.jdbc.support;
 
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -8,6 +9,7 @@ import java.util.Map.Entry;
 import org.apache.commons.lang.builder.ReflectionToStringBuilder;
 import org.apache.commons.lang.builder.ToStringStyle;
 import org.apache.commons.lang3.StringUtils;
+import org.springframework.util.ConcurrentReferenceHashMap;
 
 import com.aimartt.framework.exception.BusinessException;
 import com.google.common.collect.Lists;
@@ -19,6 +21,8 @@ public class SearchFilter {
 	public Object value;
 	public final Object originalValue;
 	public final Operator operator;
+
+	private static final ConcurrentReferenceHashMap<String, SearchKey> SEARCH_KEYS = new ConcurrentReferenceHashMap<String, SearchKey>();
 	
 	/**
 	 * <p>覆盖字段名称，将驼峰式的字符串替换为下划线分隔的字符串。</p>
@@ -27,7 +31,7 @@ public class SearchFilter {
 	 * @return
 	 */
 	public static String coverdColumnName(String columnName) {
-		StringBuffer str = new StringBuffer();
+		StringBuilder str = new StringBuilder(columnName.length() + 8);
 		for (int i = 0; i < columnName.length(); i++) {
 			char c = columnName.charAt(i);
 			if (!Character.isLowerCase(c) && c != 46 && c != 95) {
@@ -45,34 +49,58 @@ public class SearchFilter {
 	 * @return
 	 */
 	public static List<SearchFilter> parse(Map<String, Object> searchParams) {
-		List<SearchFilter> filters = Lists.newArrayList();
 		if (searchParams == null) {
 			return Collections.emptyList();
 		}
+		List<SearchFilter> filters = Lists.newArrayListWithCapacity(searchParams.size());
 		for (Entry<String, Object> entry : searchParams.entrySet()) {
-			String key = entry.getKey();
-			if (!StringUtils.contains(key, '_')) {
-				throw new BusinessException("查询条件不符合规范!");
-			}
-			int index = StringUtils.indexOfAny(key, "_");
-			String[] names = StringUtils.split(key, "_", (index + 1));
-			if (names.length < 2) {
-				throw new BusinessException("查询条件截取出错!");
-			}
-			Operator op = Operator.getOpeartor(names[0]);
-			if (op == null) {
-				throw new BusinessException("查询方式未定义!");
-			}
-			String filedName = names[1];
+			SearchKey searchKey = parseKey(entry.getKey());
 			Object value = entry.getValue();
 			if (value == null || StringUtils.isBlank(String.valueOf(value))) {
 				continue;
 			}
-			filters.add(new SearchFilter(filedName, coverdColumnName(filedName), op, value));
+			filters.add(new SearchFilter(searchKey.fieldName, searchKey.columnName, searchKey.operator, value));
 		}
 		return filters;
 	}
 
+	/**
+	 * <p>解析条件键，解析结果按条件键缓存。</p>
+	 * @param key 条件键，如 LIKE_userName
+	 * @return
+	 */
+	private static SearchKey parseKey(String key) {
+		SearchKey searchKey = SEARCH_KEYS.get(key);
+		if (searchKey != null) {
+			return searchKey;
+		}
+		if (!StringUtils.contains(key, '_')) {
+			throw new BusinessException("查询条件不符合规范!");
+		}
+		int index = StringUtils.indexOfAny(key, "_");
+		String[] names = StringUtils.split(key, "_", (index + 1));
+		if (names.length < 2) {
+			throw new BusinessException("查询条件截取出错!");
+		}
+		Operator op = Operator.getOpeartor(names[0]);
+		if (op == null) {
+			throw new BusinessException("查询方式未定义!");
+		}
+		String filedName = names[1];
+		searchKey = new SearchKey(op, filedName, coverdColumnName(filedName));
+		SEARCH_KEYS.put(key, searchKey);
+		return searchKey;
+	}
+
+	/**
+	 * <p>条件键的操作符。</p>
+	 * @param key 条件键，如 IN_id
+	 * @return
+	 */
+	static Operator operatorOf(String key) {
+		return parseKey(key).operator;
+	}
+
 	public SearchFilter(String fieldName, String originalFieldName, Operator operator, Object value) {
 		this.fieldName = fieldName;
 		this.originalFieldName = originalFieldName;
@@ -114,13 +142,31 @@ public class SearchFilter {
 		/** Is not null */
 		NOTNULL;
 	
-		public static Operator getOpeartor(String name) {
+		private static final Map<String, Operator> OPERATORS = new HashMap<String, Operator>();
+
+		static {
 			for (Operator op : Operator.values()) {
-				if (op.toString().equals(name)) {
-					return op;
-				}
+				OPERATORS.put(op.toString(), op);
 			}
-			return null;
+		}
+
+		public static Operator getOpeartor(String name) {
+			return OPERATORS.get(name);
+		}
+	}
+
+	/**
+	 * <p>解析后的条件键</p>
+	 */
+	private static final class SearchKey {
+		final Operator operator;
+		final String fieldName;
+		final String columnName;
+
+		SearchKey(Operator operator, String fieldName, String columnName) {
+			this.operator = operator;
+			this.fieldName = fieldName;
+			this.columnName = columnName;
 		}
 	}
 
@@ -0,0 +1,156 @@
+package com.aimartt.framework.jdbc.support;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.aimartt.framework.exception.BusinessException;
+
+/**
+ * <p>合并相同的并发查询。</p>
+ * <p>相同 SQL、参数和结果类型的查询正在执行时，后到的调用等待并共享其结果，不再向数据库发送重复的查询；
+ * 等待超过超时时间后自行查询。执行中的查询失败时，等待的调用得到相同的异常。</p>
+ * <p>共享的结果对象在多个调用间共享，调用方不应修改。</p>
+ */
+public class SingleFlight {
+
+	/** 默认等待超时时间（毫秒） */
+	public static final long DEFAULT_TIMEOUT_MILLIS = 5000;
+
+	private final ConcurrentMap<StatementKey, Future<?>> flights = new ConcurrentHashMap<StatementKey, Future<?>>();
+
+	private final long timeoutMillis;
+
+	private final AtomicLong executionCount = new AtomicLong();
+
+	private final AtomicLong sharedCount = new AtomicLong();
+
+	private final AtomicLong timeoutCount = new AtomicLong();
+
+	public SingleFlight() {
+		this(DEFAULT_TIMEOUT_MILLIS);
+	}
+
+	/**
+	 * @param timeoutMillis 等待执行中查询的超时时间（毫秒）
+	 */
+	public SingleFlight(long timeoutMillis) {
+		this.timeoutMillis = timeoutMillis;
+	}
+
+	/**
+	 * <p>执行查询，相同的查询正在执行时等待并共享其结果。</p>
+	 * @param sql 最终执行的 SQL
+	 * @param params 绑定参数
+	 * @param type 结果类型
+	 * @param query 查询
+	 * @return
+	 */
+	@SuppressWarnings("unchecked")
+	<V> V execute(String sql, Object[] params, Class<?> type, Callable<V> query) {
+		StatementKey key = new StatementKey(sql, params, type);
+		FutureTask<V> task = new FutureTask<V>(query);
+		Future<?> flight = flights.putIfAbsent(key, task);
+		if (flight == null) {
+			executionCount.incrementAndGet();
+			try {
+				task.run();
+			} finally {
+				flights.remove(key, task);
+			}
+			return get(task, Long.MAX_VALUE);
+		}
+		try {
+			V value = get((Future<V>) flight, timeoutMillis);
+			sharedCount.incrementAndGet();
+			return value;
+		} catch (FlightTimeoutException e) {
+			timeoutCount.incrementAndGet();
+			executionCount.incrementAndGet();
+			return call(query);
+		}
+	}
+
+	/**
+	 * <p>执行的查询数量。</p>
+	 * @return
+	 */
+	public long executionCount() {
+		return executionCount.get();
+	}
+
+	/**
+	 * <p>共享其它调用结果的次数，即节省的查询数量。</p>
+	 * @return
+	 */
+	public long sharedCount() {
+		return sharedCount.get();
+	}
+
+	/**
+	 * <p>等待超时后自行查询的次数。</p>
+	 * @return
+	 */
+	public long timeoutCount() {
+		return timeoutCount.get();
+	}
+
+	/**
+	 * <p>当前执行中的查询数量。</p>
+	 * @return
+	 */
+	public int inFlight() {
+		return flights.size();
+	}
+
+	private static <V> V get(Future<V> future, long timeoutMillis) {
+		try {
+			return (timeoutMillis == Long.MAX_VALUE) ? future.get() : future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+		} catch (TimeoutException e) {
+			throw new FlightTimeoutException();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new BusinessException("等待查询结果被中断!", e);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new BusinessException(cause.getMessage(), cause);
+		}
+	}
+
+	/**
+	 * <p>执行查询，受检异常包装为 {@link BusinessException}。</p>
+	 */
+	static <V> V call(Callable<V> query) {
+		try {
+			return query.call();
+		} catch (RuntimeException e) {
+			throw e;
+		} catch (Exception e) {
+			throw new BusinessException(e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * <p>等待超时。</p>
+	 */
+	private static class FlightTimeoutException extends RuntimeException {
+		private static final long serialVersionUID = 1L;
+
+		FlightTimeoutException() {
+			super(null, null, false, false);
+		}
+	}
+
+}
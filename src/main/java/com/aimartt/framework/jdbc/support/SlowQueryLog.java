@@ -0,0 +1,162 @@
+package com.aimartt.framework.jdbc.support;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.log4j.Logger;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.dao.DataAccessException;
+
+import com.aimartt.framework.jdbc.dialect.SqlDialect;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * <p>慢查询日志。</p>
+ * <p>执行时间超过阈值的查询，在后台线程中另取连接，以相同的 SQL 和参数获取执行计划（{@link SqlDialect#explainQuery(String)}），
+ * 与耗时、参数、动态条件的键以及执行计划中的问题（全表扫描、文件排序等）一起记录警告日志。</p>
+ * <p>相同 SQL 形状（见 {@link SqlShape}）在间隔时间内只记录一次，其余只计数；后台队列已满或连接池繁忙时不获取执行计划。</p>
+ */
+public class SlowQueryLog implements DisposableBean {
+
+	static final Logger logger = Logger.getLogger(SlowQueryLog.class);
+
+	/** 默认慢查询阈值（毫秒） */
+	public static final long DEFAULT_THRESHOLD_MILLIS = 1000;
+	/** 默认相同形状的记录间隔（毫秒） */
+	public static final long DEFAULT_INTERVAL_MILLIS = TimeUnit.MINUTES.toMillis(1);
+	/** 默认等待队列长度 */
+	public static final int DEFAULT_QUEUE_CAPACITY = 16;
+
+	/** 记录时间的最大形状数量，超出时清空 */
+	static final int MAXIMUM_SHAPES = 1000;
+
+	private final long thresholdNanos;
+	private final long intervalMillis;
+	private final ThreadPoolExecutor executor;
+
+	/** 形状最近一次记录的时间 */
+	private final ConcurrentMap<String, Long> loggedTimes = new ConcurrentHashMap<String, Long>();
+
+	private final AtomicLong slowCount = new AtomicLong();
+	private final AtomicLong suppressedCount = new AtomicLong();
+
+	public SlowQueryLog() {
+		this(DEFAULT_THRESHOLD_MILLIS);
+	}
+
+	/**
+	 * @param thresholdMillis 慢查询阈值（毫秒）
+	 */
+	public SlowQueryLog(long thresholdMillis) {
+		this(thresholdMillis, DEFAULT_INTERVAL_MILLIS, DEFAULT_QUEUE_CAPACITY);
+	}
+
+	/**
+	 * @param thresholdMillis 慢查询阈值（毫秒）
+	 * @param intervalMillis 相同形状的记录间隔（毫秒）
+	 * @param queueCapacity 等待获取执行计划的队列长度，队列已满时只记录不含执行计划的日志
+	 */
+	public SlowQueryLog(long thresholdMillis, long intervalMillis, int queueCapacity) {
+		this.thresholdNanos = TimeUnit.MILLISECONDS.toNanos(thresholdMillis);
+		this.intervalMillis = intervalMillis;
+		this.executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<Runnable>(
+				queueCapacity), new ThreadFactoryBuilder().setDaemon(true).setNameFormat("jdbc-slow-query-%d").build());
+	}
+
+	/**
+	 * <p>记录查询耗时，超过阈值时记录慢查询。</p>
+	 * @param template 执行查询的模板，用于获取执行计划
+	 * @param sql 执行的 SQL
+	 * @param params 绑定参数
+	 * @param nanos 耗时（纳秒）
+	 * @param filterKeys 生成查询的动态条件的键，可为 null
+	 */
+	void record(final MysqlExtendJdbcTemplate template, final String sql, final Object[] params, long nanos,
+			Collection<String> filterKeys) {
+		if (nanos < thresholdNanos) {
+			return;
+		}
+		slowCount.incrementAndGet();
+		if (!acquire(SqlShape.of(sql))) {
+			suppressedCount.incrementAndGet();
+			return;
+		}
+		final String message = String.format("慢查询[%d ms]：%s 参数：%s 条件：%s", TimeUnit.NANOSECONDS.toMillis(nanos),
+				sql, Arrays.toString(params), (filterKeys != null) ? filterKeys : Collections.emptySet());
+		final String explain = template.getDialect().explainQuery(sql);
+		if (explain == null) {
+			logger.warn(message);
+			return;
+		}
+		try {
+			executor.execute(new Runnable() {
+				@Override
+				public void run() {
+					logger.warn(message + explain(template, explain, params));
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			logger.warn(message + " 执行计划：队列已满，未获取");
+		}
+	}
+
+	/**
+	 * <p>超过阈值的查询次数。</p>
+	 * @return
+	 */
+	public long slowCount() {
+		return slowCount.get();
+	}
+
+	/**
+	 * <p>因间隔时间内已记录相同形状而未记录的次数。</p>
+	 * @return
+	 */
+	public long suppressedCount() {
+		return suppressedCount.get();
+	}
+
+	@Override
+	public void destroy() {
+		executor.shutdownNow();
+	}
+
+	/**
+	 * <p>相同形状在间隔时间内是否未记录过，是则占用本次记录。</p>
+	 */
+	private boolean acquire(String shape) {
+		long now = System.currentTimeMillis();
+		Long logged = loggedTimes.get(shape);
+		if (logged == null) {
+			if (loggedTimes.size() >= MAXIMUM_SHAPES) {
+				loggedTimes.clear();
+			}
+			return loggedTimes.putIfAbsent(shape, now) == null;
+		}
+		return now - logged >= intervalMillis && loggedTimes.replace(shape, logged, now);
+	}
+
+	private static String explain(MysqlExtendJdbcTemplate template, String explain, Object[] params) {
+		if (template.isPoolBusy()) {
+			return " 执行计划：连接池繁忙，未获取";
+		}
+		try {
+			List<Map<String, Object>> plan = template.queryForList(explain, params);
+			List<String> warnings = template.getDialect().planWarnings(plan);
+			return String.format(" 问题：%s 执行计划：%s", warnings.isEmpty() ? "无" : warnings, plan);
+		} catch (DataAccessException e) {
+			return " 执行计划：获取失败，" + e.getMessage();
+		}
+	}
+
+}
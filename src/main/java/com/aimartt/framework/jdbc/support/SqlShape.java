@@ -0,0 +1,44 @@
+package com.aimartt.framework.jdbc.support;
+
+import java.util.regex.Pattern;
+
+import org.springframework.util.ConcurrentReferenceHashMap;
+
+/**
+ * <p>SQL 形状：去掉字面量和多余空白后的 SQL，用于按语句结构归并统计。</p>
+ * <p>字符串和数字字面量替换为 ?，IN 参数列表合并为单个 ?，连续空白合并为一个空格。
+ * 转换结果按原 SQL 缓存，相同的 SQL 只转换一次。</p>
+ */
+final class SqlShape {
+
+	private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+
+	private static final Pattern NUMBER_LITERAL = Pattern.compile("(?<![\\w.])-?\\d+(?:\\.\\d+)?\\b");
+
+	private static final Pattern IN_LIST = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)+\\s*\\)");
+
+	private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+	private static final ConcurrentReferenceHashMap<String, String> SHAPES = new ConcurrentReferenceHashMap<String, String>();
+
+	private SqlShape() {
+	}
+
+	/**
+	 * <p>获取 SQL 的形状。</p>
+	 * @param sql
+	 * @return
+	 */
+	static String of(String sql) {
+		String shape = SHAPES.get(sql);
+		if (shape == null) {
+			shape = STRING_LITERAL.matcher(sql).replaceAll("?");
+			shape = NUMBER_LITERAL.matcher(shape).replaceAll("?");
+			shape = IN_LIST.matcher(shape).replaceAll("(?)");
+			shape = WHITESPACE.matcher(shape).replaceAll(" ").trim();
+			SHAPES.put(sql, shape);
+		}
+		return shape;
+	}
+
+}
@@ -0,0 +1,39 @@
+package com.aimartt.framework.jdbc.support;
+
+import java.util.Arrays;
+
+/**
+ * <p>语句键：最终执行的 SQL、绑定参数和结果类型，用于结果缓存和合并查询。</p>
+ */
+final class StatementKey {
+
+	private final String sql;
+	private final Object[] params;
+	private final Class<?> type;
+	private final int hash;
+
+	StatementKey(String sql, Object[] params, Class<?> type) {
+		this.sql = sql;
+		this.params = (params != null) ? params : new Object[0];
+		this.type = type;
+		this.hash = (sql.hashCode() * 31 + Arrays.deepHashCode(this.params)) * 31 + type.hashCode();
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof StatementKey)) {
+			return false;
+		}
+		StatementKey that = (StatementKey) obj;
+		return type == that.type && sql.equals(that.sql) && Arrays.deepEquals(params, that.params);
+	}
+
+	@Override
+	public int hashCode() {
+		return hash;
+	}
+
+}
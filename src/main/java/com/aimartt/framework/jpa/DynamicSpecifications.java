@@ -1,13 +1,13 @@
 package com.aimartt.framework.jpa;
 
 import java.text.ParseException;
-import java.util.Arrays;
 import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 
 import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Expression;
 import javax.persistence.criteria.Path;
 import javax.persistence.criteria.Predicate;
 import javax.persistence.criteria.Root;
@@ -18,6 +18,7 @@ import org.apache.commons.lang3.time.DateUtils;
 import org.springframework.core.convert.ConversionService;
 import org.springframework.data.jpa.domain.Specification;
 
+import com.aimartt.framework.jdbc.support.InClause;
 import com.aimartt.framework.jdbc.support.SearchFilter;
 import com.aimartt.framework.util.DateUtil;
 import com.google.common.collect.Lists;
@@ -104,28 +105,10 @@ public class DynamicSpecifications {
 							predicates.add(expression.isNotNull());
 							break;
 						case IN:
-							Predicate predicate = null;
-							if (filter.value instanceof String) {
-								String[] values = String.valueOf(filter.value).split(",");
-								predicate = expression.in(Arrays.asList(values));
-							} else if (filter.value instanceof String[]) {
-								predicate = expression.in(Arrays.asList((String[]) filter.value));
-							} else {
-								predicate = expression.in((Collection<Object>) filter.value);
-							}
-							predicates.add(predicate);
+							predicates.add(inPredicate(builder, expression, filter.value));
 							break;
 						case NOTIN:
-							Predicate predicate2 = null;
-							if (filter.value instanceof String) {
-								String[] values = String.valueOf(filter.value).split(",");
-								predicate2 = expression.in(Arrays.asList(values));
-							} else if (filter.value instanceof String[]) {
-								predicate2 = expression.in(Arrays.asList((String[]) filter.value));
-							} else {
-								predicate2 = expression.in((Collection<Object>) filter.value);
-							}
-							predicates.add(builder.not(predicate2));
+							predicates.add(builder.not(inPredicate(builder, expression, filter.value)));
 							break;
 						}
 					}
@@ -139,5 +122,29 @@ public class DynamicSpecifications {
 			
 		};
 	}
+
+	/**
+	 * <p>IN 条件：参数去重并补齐，超过 {@link InClause#CHUNK_SIZE} 时拆分为多个 IN 子句以 OR 连接。</p>
+	 * @param builder
+	 * @param expression
+	 * @param value 逗号分隔的字符串、数组、集合或单个值
+	 * @return
+	 */
+	private static Predicate inPredicate(CriteriaBuilder builder, Expression<?> expression, Object value) {
+		if (value instanceof String) {
+			value = ((String) value).split(",");
+		} else if (!InClause.isMultiValued(value)) {
+			value = new Object[] { value };
+		}
+		List<Object> values = InClause.pad(value);
+		if (values.size() <= InClause.CHUNK_SIZE) {
+			return expression.in(values);
+		}
+		List<Predicate> chunks = Lists.newArrayList();
+		for (List<Object> chunk : InClause.chunk(values)) {
+			chunks.add(expression.in(chunk));
+		}
+		return builder.or(chunks.toArray(new Predicate[chunks.size()]));
+	}
 	
 }
\ No newline at end of file
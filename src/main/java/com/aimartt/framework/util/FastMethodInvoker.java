@@ -0,0 +1,77 @@
+package com.aimartt.framework.util;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+import net.sf.cglib.reflect.FastClass;
+import net.sf.cglib.reflect.FastMethod;
+
+import org.springframework.util.Assert;
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * <p>预绑定的方法调用器。</p>
+ * <p>public 类的 public 方法通过 cglib {@link FastClass} 按方法下标直接调用，省去每次调用的反射开销；
+ * 其它方法退回到 {@link Method#invoke(Object, Object...)}。</p>
+ */
+public abstract class FastMethodInvoker {
+
+	/**
+	 * <p>为方法创建调用器。</p>
+	 * @param method 被调用的方法
+	 * @return
+	 */
+	public static FastMethodInvoker create(Method method) {
+		Assert.notNull(method);
+		if (Modifier.isPublic(method.getModifiers()) && Modifier.isPublic(method.getDeclaringClass().getModifiers())) {
+			try {
+				return new CglibInvoker(FastClass.create(method.getDeclaringClass()).getMethod(method));
+			} catch (RuntimeException e) {
+				// 无法生成 FastClass，退回到反射调用
+			} catch (LinkageError e) {
+				// 同上
+			}
+		}
+		return new ReflectiveInvoker(method);
+	}
+
+	/**
+	 * <p>调用方法。</p>
+	 * @param target 目标对象
+	 * @param args 方法参数
+	 * @return 方法返回值
+	 * @throws InvocationTargetException 方法本身抛出异常
+	 * @throws IllegalAccessException 无法访问方法
+	 */
+	public abstract Object invoke(Object target, Object... args) throws InvocationTargetException,
+			IllegalAccessException;
+
+	private static class CglibInvoker extends FastMethodInvoker {
+		private final FastMethod method;
+
+		CglibInvoker(FastMethod method) {
+			this.method = method;
+		}
+
+		@Override
+		public Object invoke(Object target, Object... args) throws InvocationTargetException {
+			return method.invoke(target, args);
+		}
+	}
+
+	private static class ReflectiveInvoker extends FastMethodInvoker {
+		private final Method method;
+
+		ReflectiveInvoker(Method method) {
+			ReflectionUtils.makeAccessible(method);
+			this.method = method;
+		}
+
+		@Override
+		public Object invoke(Object target, Object... args) throws InvocationTargetException, IllegalAccessException {
+			return method.invoke(target, args);
+		}
+	}
+
+}